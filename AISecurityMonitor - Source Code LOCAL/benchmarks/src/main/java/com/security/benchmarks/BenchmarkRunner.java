@@ -0,0 +1,42 @@
+package com.security.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always attached, so every result carries
+ * gc.alloc.rate.norm (bytes allocated per operation) next to ops/s, and writes
+ * jmh-result.json for baseline tracking. Accepts the usual JMH command line,
+ * e.g. "ThreatScoring -p connections=10000 -f 1".
+ */
+public class BenchmarkRunner {
+    
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .parent(cli)
+            .addProfiler(GCProfiler.class);
+        
+        if (!cli.getResult().hasValue()) {
+            options.result("jmh-result.json");
+        }
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getForkCount().hasValue()) {
+            options.forks(1);
+        }
+        if (!cli.getWarmupIterations().hasValue()) {
+            options.warmupIterations(3);
+        }
+        if (!cli.getMeasurementIterations().hasValue()) {
+            options.measurementIterations(5);
+        }
+        
+        new Runner(options.build()).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.security.benchmarks;
+
+import com.security.models.ConnectionData;
+import com.security.services.database.DatabaseService;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Connection logging into a fresh temporary SQLite file per trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DatabaseWriteBenchmark {
+    
+    @Param({ "1", "100", "1000" })
+    public int connections;
+    
+    private File dbFile;
+    private DatabaseService database;
+    private List<ConnectionData> batch;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dbFile = Files.createTempFile("security-monitor-bench", ".db").toFile();
+        database = new DatabaseService(dbFile.getPath());
+        batch = Fixtures.connections(connections);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        dbFile.delete();
+    }
+    
+    // One autocommitted insert per connection
+    @Benchmark
+    public void logConnection() {
+        for (ConnectionData conn : batch) {
+            database.logConnection(conn);
+        }
+    }
+    
+    // Same rows in a single transaction
+    @Benchmark
+    public void logConnections() {
+        database.logConnections(batch);
+    }
+}
\ No newline at end of file
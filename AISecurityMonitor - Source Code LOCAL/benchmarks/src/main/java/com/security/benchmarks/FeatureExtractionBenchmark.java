@@ -0,0 +1,40 @@
+package com.security.benchmarks;
+
+import com.security.AISecurityMonitor;
+import com.security.models.ConnectionData;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// AISecurityMonitor.extractFeatures over a batch, including the traffic window updates
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FeatureExtractionBenchmark {
+    
+    @Param({ "100", "10000" })
+    public int connections;
+    
+    private AISecurityMonitor monitor;
+    private List<ConnectionData> batch;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        monitor = AISecurityMonitor.getInstance();
+        batch = Fixtures.connections(connections);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        monitor.shutdown();
+    }
+    
+    @Benchmark
+    public void extractFeatures(Blackhole blackhole) {
+        for (ConnectionData conn : batch) {
+            blackhole.consume(monitor.extractFeatures(conn));
+        }
+    }
+}
\ No newline at end of file
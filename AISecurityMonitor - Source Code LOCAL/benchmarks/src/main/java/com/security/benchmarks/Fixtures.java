@@ -0,0 +1,51 @@
+package com.security.benchmarks;
+
+import com.security.models.ConnectionData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic inputs shared by the benchmarks so runs are comparable
+final class Fixtures {
+    private static final int[] PORTS = { 443, 443, 443, 80, 53, 8080, 22, 3389, 445, 4444 };
+    private static final String[] STATES = { "ESTABLISHED", "ESTABLISHED", "ESTABLISHED", "TIME_WAIT", "CLOSE_WAIT", "LISTENING" };
+    
+    private Fixtures() {
+    }
+    
+    static List<ConnectionData> connections(int count) {
+        Random random = new Random(42);
+        List<ConnectionData> connections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            connections.add(new ConnectionData(
+                "TCP",
+                "192.168.1.20",
+                publicIP(random, count),
+                49152 + (i % 16384),
+                PORTS[random.nextInt(PORTS.length)],
+                STATES[random.nextInt(STATES.length)]
+            ));
+        }
+        return connections;
+    }
+    
+    // Rows as printed by "netstat -ano" on Windows
+    static List<String> netstatLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (ConnectionData conn : connections(count)) {
+            lines.add(String.format("  %-6s %-22s %-22s %-15s %d",
+                conn.getProtocol(),
+                conn.getLocalIP() + ":" + conn.getLocalPort(),
+                conn.getRemoteIP() + ":" + conn.getRemotePort(),
+                conn.getState(),
+                1000 + conn.getLocalPort() % 5000));
+        }
+        return lines;
+    }
+    
+    // Roughly one distinct remote address per eight connections
+    private static String publicIP(Random random, int count) {
+        int host = random.nextInt(Math.max(1, count / 8));
+        return (20 + host % 150) + "." + ((host >> 8) & 0xFF) + "." + (host & 0xFF) + ".10";
+    }
+}
\ No newline at end of file
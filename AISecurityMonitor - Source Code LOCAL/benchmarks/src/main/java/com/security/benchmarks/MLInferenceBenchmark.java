@@ -0,0 +1,61 @@
+package com.security.benchmarks;
+
+import com.security.models.ConnectionData;
+import com.security.services.ml.MLThreatDetectionService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Random forest inference, one call per connection versus one call per batch.
+// The model is loaded from (or trained into) threat_model.model in the working directory.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MLInferenceBenchmark {
+    
+    @Param({ "1", "64", "1024" })
+    public int batchSize;
+    
+    private MLThreatDetectionService mlDetector;
+    private List<ConnectionData> batch;
+    private List<Map<String, Object>> features;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        mlDetector = new MLThreatDetectionService();
+        batch = Fixtures.connections(batchSize);
+        features = new ArrayList<>(batchSize);
+        Random random = new Random(7);
+        for (int i = 0; i < batchSize; i++) {
+            Map<String, Object> f = new HashMap<>();
+            f.put("src_bytes", random.nextInt(10000));
+            f.put("dst_bytes", random.nextInt(10000));
+            f.put("duration", random.nextDouble() * 60);
+            f.put("count", (double) random.nextInt(20));
+            f.put("srv_count", (double) random.nextInt(20));
+            f.put("same_srv_rate", random.nextDouble());
+            f.put("diff_srv_rate", random.nextDouble());
+            f.put("dst_host_srv_count", (double) random.nextInt(100));
+            f.put("dst_host_same_srv_rate", random.nextDouble());
+            f.put("dst_host_diff_srv_rate", random.nextDouble());
+            features.add(f);
+        }
+    }
+    
+    @Benchmark
+    public void single(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(mlDetector.analyzeWithML(batch.get(i), features.get(i)));
+        }
+    }
+    
+    @Benchmark
+    public double[] batched() {
+        return mlDetector.analyzeWithML(batch, features);
+    }
+}
\ No newline at end of file
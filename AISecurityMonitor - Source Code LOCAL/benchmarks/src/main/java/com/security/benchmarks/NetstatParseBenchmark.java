@@ -0,0 +1,47 @@
+package com.security.benchmarks;
+
+import com.security.services.NetworkScannerService;
+import com.security.services.netstat.NetstatParser;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// One operation parses a whole netstat snapshot of the given size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NetstatParseBenchmark {
+    
+    @Param({ "100", "10000" })
+    public int lines;
+    
+    private NetworkScannerService scanner;
+    private List<String> snapshot;
+    private NetstatParser parser;
+    private byte[] output;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        scanner = new NetworkScannerService();
+        snapshot = Fixtures.netstatLines(lines);
+        parser = new NetstatParser();
+        output = String.join("\r\n", snapshot).getBytes(StandardCharsets.ISO_8859_1);
+    }
+    
+    @Benchmark
+    public void parseNetstatLine(Blackhole blackhole) {
+        for (String line : snapshot) {
+            blackhole.consume(scanner.parseNetstatLine(line));
+        }
+    }
+    
+    // The live path: whole process output streamed through the byte parser
+    @Benchmark
+    public void parseNetstatStream(Blackhole blackhole) throws IOException {
+        parser.parse(new ByteArrayInputStream(output), blackhole::consume);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.security.benchmarks;
+
+import com.security.models.ConnectionData;
+import com.security.services.ThreatDetectionService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Rule-based scoring of a batch of connections, with a share of flagged IPs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ThreatScoringBenchmark {
+    
+    @Param({ "100", "10000" })
+    public int connections;
+    
+    private ThreatDetectionService threatDetector;
+    private List<ConnectionData> batch;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        threatDetector = new ThreatDetectionService();
+        batch = Fixtures.connections(connections);
+        for (int i = 0; i < batch.size(); i += 50) {
+            threatDetector.flagIP(batch.get(i).getRemoteIP(), 40);
+        }
+    }
+    
+    @Benchmark
+    public void analyze(Blackhole blackhole) {
+        for (ConnectionData conn : batch) {
+            blackhole.consume(threatDetector.analyze(conn));
+        }
+    }
+}
\ No newline at end of file
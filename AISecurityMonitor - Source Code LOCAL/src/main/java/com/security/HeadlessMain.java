@@ -0,0 +1,60 @@
+package com.security;
+
+import com.security.events.MonitorEvent;
+import com.security.services.pipeline.AdaptiveScheduler;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the monitor as a daemon without Swing: no AWT classes are loaded.
+ * Writes one key=value line per monitoring cycle and shuts down through
+ * AISecurityMonitor.shutdown() on SIGTERM / Ctrl+C.
+ */
+public class HeadlessMain {
+    
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        
+        AISecurityMonitor monitor = AISecurityMonitor.getInstance();
+        CountDownLatch stopped = new CountDownLatch(1);
+        
+        monitor.getEventBus().subscribe("cycle-log", 256, 0,
+            events -> logCycles(monitor, events), MonitorEvent.CycleCompleted.class);
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("ts=" + Instant.now() + " event=shutdown");
+            monitor.shutdown();
+            stopped.countDown();
+        }, "monitor-shutdown"));
+        
+        System.out.println("ts=" + Instant.now() + " event=start mode=headless");
+        monitor.startMonitoring();
+        
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void logCycles(AISecurityMonitor monitor, List<MonitorEvent> events) {
+        AdaptiveScheduler scheduler = monitor.getConnectionScheduler();
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        
+        for (MonitorEvent event : events) {
+            MonitorEvent.CycleCompleted cycle = (MonitorEvent.CycleCompleted) event;
+            System.out.println(String.format(
+                "ts=%s event=cycle connections=%d scored=%d closed=%d suspicious=%d malicious=%d " +
+                "duration_ms=%d interval_ms=%d overruns=%d skipped=%d devices=%d blocked=%d " +
+                "verdict_reuse_ratio=%.3f db_dropped=%d heap_used_mb=%d",
+                Instant.ofEpochMilli(cycle.getTimestamp()), cycle.getConnections(), cycle.getScored(),
+                cycle.getClosed(), cycle.getSuspicious(), cycle.getMalicious(), cycle.getDurationMillis(),
+                scheduler.getCurrentIntervalMillis(), scheduler.getOverrunCount(), scheduler.getSkippedCount(),
+                monitor.getNetworkDevices().size(), monitor.getBlockedIPs().size(),
+                monitor.getConnectionTracker().getReuseRatio(), monitor.getPersistSubscription().getDropped(),
+                heapUsedMb));
+        }
+    }
+}
\ No newline at end of file
@@ -1,19 +1,30 @@
 package com.security;
 
 import com.security.gui.MainWindow;
-import com.formdev.flatlaf.FlatDarkLaf;
-import javax.swing.*;
 
 public class Main {
     public static void main(String[] args) {
-        try {
-            UIManager.setLookAndFeel(new FlatDarkLaf());
-            SwingUtilities.invokeLater(() -> {
-                MainWindow window = new MainWindow();
-                window.setVisible(true);
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
+        // Decide before touching any Swing/AWT class so headless runs never load them
+        if (hasArg(args, "--replay") || hasArg(args, "--pcap")) {
+            ReplayMain.main(args);
+        } else if (isHeadless(args)) {
+            HeadlessMain.main(args);
+        } else {
+            MainWindow.launch();
         }
     }
+    
+    private static boolean isHeadless(String[] args) {
+        return hasArg(args, "--headless")
+            || Boolean.getBoolean("monitor.headless") || Boolean.getBoolean("java.awt.headless");
+    }
+    
+    private static boolean hasArg(String[] args, String name) {
+        for (String arg : args) {
+            if (name.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
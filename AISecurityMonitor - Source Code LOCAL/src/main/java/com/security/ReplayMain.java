@@ -0,0 +1,74 @@
+package com.security;
+
+import com.security.services.ConfigService;
+import com.security.services.replay.PcapReplay;
+import com.security.services.replay.SnapshotReplay;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Replays a recorded connection capture, or assembles a pcap/pcapng packet
+ * capture into flows, through the analysis pipeline without Swing.
+ * Usage: --replay <file> [--fast] | --pcap <file>
+ */
+public class ReplayMain {
+    
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        // Per-connection debug lines would dominate a fast replay; keep them opt-in
+        if (System.getProperty("monitor.log.connections") == null) {
+            System.setProperty("monitor.log.connections", "false");
+        }
+        // An offline capture should not trigger lookups for every remote address in it
+        if (hasArg(args, "--pcap") && System.getProperty("dns.enabled") == null) {
+            System.setProperty("dns.enabled", "false");
+        }
+        
+        Path file = null;
+        boolean pcap = false;
+        SnapshotReplay.Pace pace = SnapshotReplay.Pace.ORIGINAL;
+        for (int i = 0; i < args.length; i++) {
+            if ("--replay".equals(args[i]) && i + 1 < args.length) {
+                file = Paths.get(args[++i]);
+            } else if ("--fast".equals(args[i])) {
+                pace = SnapshotReplay.Pace.FAST;
+            } else if ("--pcap".equals(args[i]) && i + 1 < args.length) {
+                file = Paths.get(args[++i]);
+                pcap = true;
+            }
+        }
+        
+        if (file == null || !Files.isReadable(file)) {
+            System.err.println("Usage: --replay <capture file> [--fast] | --pcap <pcap or pcapng file>");
+            System.exit(2);
+        }
+        
+        AISecurityMonitor monitor = AISecurityMonitor.getInstance();
+        try {
+            if (pcap) {
+                ConfigService config = monitor.getConfig();
+                new PcapReplay(monitor,
+                    config.getLong("pcap.flow.idle.seconds", 60) * 1000,
+                    config.getInt("pcap.batch.size", 4096),
+                    config.getLong("pcap.flow.table.mb", 256) << 20).run(file);
+            } else {
+                new SnapshotReplay(monitor, pace).run(file);
+            }
+        } catch (Exception e) {
+            System.err.println("Replay failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            monitor.shutdown();
+        }
+    }
+    
+    private static boolean hasArg(String[] args, String name) {
+        for (String arg : args) {
+            if (name.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.security.events;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe bus. Every subscriber owns a bounded queue and
+ * a worker thread that hands it coalesced batches, so a slow consumer only
+ * falls behind itself. A full queue sheds its oldest pending event and counts
+ * it, so publish() never waits on a subscriber.
+ */
+public class EventBus {
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    
+    public void publish(MonitorEvent event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.accepts(event)) {
+                subscription.enqueue(event);
+            }
+        }
+    }
+    
+    public Subscription subscribe(String name, int capacity, long batchWindowMs,
+                                  Consumer<List<MonitorEvent>> handler, Class<?>... types) {
+        return subscribe(name, capacity, batchWindowMs, handler, new HashSet<>(Arrays.asList(types)));
+    }
+    
+    /**
+     * @param name          used for the worker thread name and diagnostics
+     * @param capacity      maximum pending events before the oldest are dropped
+     * @param batchWindowMs how long to wait after the first event so more can be coalesced
+     * @param handler       receives each batch on the subscriber's own thread
+     * @param types         event classes to receive (empty = all)
+     */
+    public Subscription subscribe(String name, int capacity, long batchWindowMs,
+                                  Consumer<List<MonitorEvent>> handler,
+                                  Set<Class<?>> types) {
+        Subscription subscription = new Subscription(name, capacity, batchWindowMs, handler, types);
+        subscriptions.add(subscription);
+        subscription.start();
+        return subscription;
+    }
+    
+    public List<Subscription> getSubscriptions() {
+        return Collections.unmodifiableList(subscriptions);
+    }
+    
+    // Stops all subscribers after they have delivered what is already queued
+    public void shutdown() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+    
+    public class Subscription {
+        private final String name;
+        private final int capacity;
+        private final long batchWindowMs;
+        private final Consumer<List<MonitorEvent>> handler;
+        private final Set<Class<?>> types;
+        private final BlockingQueue<MonitorEvent> queue;
+        private final Thread worker;
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean running = true;
+        
+        private Subscription(String name, int capacity, long batchWindowMs,
+                             Consumer<List<MonitorEvent>> handler,
+                             Set<Class<?>> types) {
+            this.name = name;
+            this.capacity = capacity;
+            this.batchWindowMs = batchWindowMs;
+            this.handler = handler;
+            this.types = new HashSet<>(types);
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = new Thread(this::run, "event-" + name);
+            this.worker.setDaemon(true);
+        }
+        
+        private void start() {
+            worker.start();
+        }
+        
+        private boolean accepts(MonitorEvent event) {
+            return running && (types.isEmpty() || types.contains(event.getClass()));
+        }
+        
+        private void enqueue(MonitorEvent event) {
+            accepted.incrementAndGet();
+            while (!queue.offer(event)) {
+                // Full: shed the oldest event rather than block the publisher
+                if (queue.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+        
+        private void run() {
+            while (running || !queue.isEmpty()) {
+                List<MonitorEvent> batch = new ArrayList<>();
+                try {
+                    MonitorEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    if (batchWindowMs > 0 && running) {
+                        Thread.sleep(batchWindowMs);
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, capacity);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                
+                try {
+                    handler.accept(batch);
+                } catch (Exception e) {
+                    System.err.println("Event subscriber " + name + " failed: " + e.getMessage());
+                }
+                delivered.addAndGet(batch.size());
+            }
+        }
+        
+        // Delivers what is already queued, then stops the worker
+        public void close() {
+            running = false;
+            subscriptions.remove(this);
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        public String getName() { return name; }
+        public int getPending() { return queue.size(); }
+        public long getAccepted() { return accepted.get(); }
+        public long getDelivered() { return delivered.get(); }
+        public long getDropped() { return dropped.get(); }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.security.events;
+
+import com.security.models.ConnectionData;
+import com.security.models.DeviceInfo;
+
+// Events published by AISecurityMonitor on the EventBus
+public abstract class MonitorEvent {
+    private final long timestamp;
+    
+    protected MonitorEvent() {
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    public long getTimestamp() { return timestamp; }
+    
+    public static class ConnectionScored extends MonitorEvent {
+        private final ConnectionData connection;
+        
+        public ConnectionScored(ConnectionData connection) {
+            this.connection = connection;
+        }
+        
+        public ConnectionData getConnection() { return connection; }
+    }
+    
+    public static class ThreatRaised extends MonitorEvent {
+        private final ConnectionData connection;
+        
+        public ThreatRaised(ConnectionData connection) {
+            this.connection = connection;
+        }
+        
+        public ConnectionData getConnection() { return connection; }
+    }
+    
+    public static class IPBlocked extends MonitorEvent {
+        private final String ip;
+        private final String reason;
+        
+        public IPBlocked(String ip, String reason) {
+            this.ip = ip;
+            this.reason = reason;
+        }
+        
+        public String getIp() { return ip; }
+        public String getReason() { return reason; }
+    }
+    
+    public static class DeviceDiscovered extends MonitorEvent {
+        private final DeviceInfo device;
+        
+        public DeviceDiscovered(DeviceInfo device) {
+            this.device = device;
+        }
+        
+        public DeviceInfo getDevice() { return device; }
+    }
+    
+    // A known device now answers from a different MAC address or interface
+    public static class DeviceChanged extends MonitorEvent {
+        private final DeviceInfo device;
+        private final String previousMac;
+        
+        public DeviceChanged(DeviceInfo device, String previousMac) {
+            this.device = device;
+            this.previousMac = previousMac;
+        }
+        
+        public DeviceInfo getDevice() { return device; }
+        public String getPreviousMac() { return previousMac; }
+    }
+    
+    public static class DeviceRemoved extends MonitorEvent {
+        private final DeviceInfo device;
+        
+        public DeviceRemoved(DeviceInfo device) {
+            this.device = device;
+        }
+        
+        public DeviceInfo getDevice() { return device; }
+    }
+    
+    public static class CycleCompleted extends MonitorEvent {
+        private final int connections;
+        private final int scored;
+        private final int closed;
+        private final int suspicious;
+        private final int malicious;
+        private final long durationMillis;
+        private final long trackNanos;
+        private final long analysisNanos;
+        
+        public CycleCompleted(int connections, int scored, int closed,
+                              int suspicious, int malicious, long durationMillis,
+                              long trackNanos, long analysisNanos) {
+            this.connections = connections;
+            this.scored = scored;
+            this.closed = closed;
+            this.suspicious = suspicious;
+            this.malicious = malicious;
+            this.durationMillis = durationMillis;
+            this.trackNanos = trackNanos;
+            this.analysisNanos = analysisNanos;
+        }
+        
+        public int getConnections() { return connections; }
+        public int getScored() { return scored; }
+        public int getClosed() { return closed; }
+        public int getSuspicious() { return suspicious; }
+        public int getMalicious() { return malicious; }
+        public long getDurationMillis() { return durationMillis; }
+        public long getTrackNanos() { return trackNanos; }
+        public long getAnalysisNanos() { return analysisNanos; }
+    }
+}
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.security.gui;
 
 import com.security.AISecurityMonitor;
+import com.security.events.EventBus;
+import com.security.events.MonitorEvent;
 import com.security.models.ConnectionData;
 import com.security.models.DeviceInfo;
+import com.security.models.IpAddress;
+import com.security.services.pipeline.AdaptiveScheduler;
 import com.security.services.scanner.AdvancedPortScanner;
+import com.security.services.tracking.ConnectionCounterIndex;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -22,9 +27,22 @@ public class MainWindow extends JFrame {
     private JPanel networkMapPanel;
     private DefaultTableModel connectionsTableModel;
     private JTable connectionsTable;
-    private javax.swing.Timer updateTimer;
+    private EventBus.Subscription uiSubscription;
     private SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss");
     
+    // GUI entry point, kept here so Main itself never references Swing
+    public static void launch() {
+        try {
+            UIManager.setLookAndFeel(new com.formdev.flatlaf.FlatDarkLaf());
+            SwingUtilities.invokeLater(() -> {
+                MainWindow window = new MainWindow();
+                window.setVisible(true);
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+    
     public MainWindow() {
         this.monitor = AISecurityMonitor.getInstance();
         initializeUI();
@@ -76,8 +94,8 @@ public class MainWindow extends JFrame {
         // Start monitoring
         monitor.startMonitoring();
         
-        // Start UI update timer
-        startUpdateTimer();
+        // Refresh views when the monitor publishes events
+        subscribeToEvents();
     }
     
     private void createMenuBar() {
@@ -227,8 +245,8 @@ public class MainWindow extends JFrame {
         );
         
         if (confirm == JOptionPane.YES_OPTION) {
-            if (updateTimer != null) {
-                updateTimer.stop();
+            if (uiSubscription != null) {
+                uiSubscription.close();
             }
             monitor.shutdown();
             System.exit(0);
@@ -269,7 +287,7 @@ public class MainWindow extends JFrame {
     }
     
     private void showFirewallRules() {
-        Set<String> blockedIPs = monitor.getBlockedIPs();
+        Set<IpAddress> blockedIPs = monitor.getBlockedIPs();
         StringBuilder sb = new StringBuilder();
         sb.append("Current Firewall Rules:\n");
         sb.append("=======================\n\n");
@@ -278,7 +296,7 @@ public class MainWindow extends JFrame {
             sb.append("No IP addresses are currently blocked.\n");
         } else {
             sb.append("Blocked IP Addresses (").append(blockedIPs.size()).append("):\n");
-            for (String ip : blockedIPs) {
+            for (IpAddress ip : blockedIPs) {
                 sb.append("  • ").append(ip).append("\n");
             }
         }
@@ -387,9 +405,16 @@ public class MainWindow extends JFrame {
         });
     }
     
-    private void startUpdateTimer() {
-        updateTimer = new javax.swing.Timer(2000, e -> updateUI());
-        updateTimer.start();
+    private void subscribeToEvents() {
+        // Bursts of events within 500 ms collapse into a single refresh
+        uiSubscription = monitor.getEventBus().subscribe("gui", 1024, 500, events -> updateUI(),
+            MonitorEvent.CycleCompleted.class,
+            MonitorEvent.ThreatRaised.class,
+            MonitorEvent.IPBlocked.class,
+            MonitorEvent.DeviceDiscovered.class,
+            MonitorEvent.DeviceChanged.class,
+            MonitorEvent.DeviceRemoved.class);
+        monitor.getMetrics().getUiRefresh().setQueueDepthGauge(uiSubscription::getPending);
     }
     
     private JPanel createDashboardTab() {
@@ -438,12 +463,14 @@ public class MainWindow extends JFrame {
             monitor.startMonitoring();
             startBtn.setEnabled(false);
             stopBtn.setEnabled(true);
+            updateUI();
         });
         
         stopBtn.addActionListener(e -> {
             monitor.stopMonitoring();
             startBtn.setEnabled(true);
             stopBtn.setEnabled(false);
+            updateUI();
         });
         
         scanBtn.addActionListener(e -> {
@@ -523,7 +550,7 @@ public class MainWindow extends JFrame {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
-        Map<String, DeviceInfo> devices = monitor.getNetworkDevices();
+        Map<IpAddress, DeviceInfo> devices = monitor.getNetworkDevices();
         if (devices.isEmpty()) {
             g2d.setColor(Color.WHITE);
             g2d.drawString("No devices found. Start monitoring to discover network.", 50, 50);
@@ -568,8 +595,9 @@ public class MainWindow extends JFrame {
             }
             
             g2d.setFont(new Font("Arial", Font.PLAIN, 9));
-            g2d.drawString(device.getDeviceType() != null ? device.getDeviceType() : "Unknown", 
-                          x + 5, y + 50);
+            String type = device.getDeviceType() != null ? device.getDeviceType()
+                : device.getVendor() != null ? device.getVendor() : "Unknown";
+            g2d.drawString(type, x + 5, y + 50);
             g2d.drawString(device.getStatus(), x + 5, y + 65);
             
             x += 200;
@@ -586,11 +614,11 @@ public class MainWindow extends JFrame {
         
         // Create table model
         String[] columns = {"Time", "Protocol", "Source IP:Port", "Destination IP:Port", 
-                           "State", "Threat Score", "Status"};
+                           "Remote Host", "State", "Threat Score", "Status"};
         connectionsTableModel = new DefaultTableModel(columns, 0) {
             @Override
             public Class<?> getColumnClass(int columnIndex) {
-                return columnIndex == 5 ? Double.class : String.class;
+                return columnIndex == 6 ? Double.class : String.class;
             }
             
             @Override
@@ -604,7 +632,7 @@ public class MainWindow extends JFrame {
         connectionsTable.setFont(new Font("Arial", Font.PLAIN, 12));
         
         // Set column renderers for threat score
-        connectionsTable.getColumnModel().getColumn(5).setCellRenderer(new ThreatScoreRenderer());
+        connectionsTable.getColumnModel().getColumn(6).setCellRenderer(new ThreatScoreRenderer());
         
         // Make columns sortable
         connectionsTable.setAutoCreateRowSorter(true);
@@ -673,6 +701,7 @@ public class MainWindow extends JFrame {
     private void updateConnectionsTable() {
         SwingUtilities.invokeLater(() -> {
             connectionsTableModel.setRowCount(0);
+            // Snapshot copy of the history, safe to sort here
             List<ConnectionData> connections = monitor.getRecentConnections();
             
             // Sort by threat score (highest first)
@@ -684,6 +713,7 @@ public class MainWindow extends JFrame {
                     conn.getProtocol(),
                     conn.getLocalIP() + ":" + conn.getLocalPort(),
                     conn.getRemoteIP() + ":" + conn.getRemotePort(),
+                    conn.getRemoteHostname() != null ? conn.getRemoteHostname() : "",
                     conn.getState(),
                     conn.getThreatScore(),
                     conn.getStatus()
@@ -1092,7 +1122,8 @@ public class MainWindow extends JFrame {
         settingsPanel.add(new JLabel("Scan Interval (seconds):"), gbc);
         
         gbc.gridx = 1;
-        JTextField intervalField = new JTextField("5");
+        JTextField intervalField = new JTextField(
+            String.valueOf(monitor.getConnectionScheduler().getBaseIntervalMillis() / 1000));
         settingsPanel.add(intervalField, gbc);
         
         // Notifications
@@ -1129,6 +1160,22 @@ public class MainWindow extends JFrame {
         saveBtn.setFont(new Font("Arial", Font.BOLD, 12));
         
         saveBtn.addActionListener(e -> {
+            int interval;
+            try {
+                interval = Integer.parseInt(intervalField.getText().trim());
+                if (interval <= 0) {
+                    throw new NumberFormatException();
+                }
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, 
+                    "Scan interval must be a positive number of seconds.", 
+                    "Invalid Setting", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            monitor.setScanInterval(interval);
+            // Bounds may have clamped the value
+            intervalField.setText(String.valueOf(monitor.getConnectionScheduler().getBaseIntervalMillis() / 1000));
+            
             JOptionPane.showMessageDialog(this, 
                 "Settings saved successfully!\n\n" +
                 "Auto-block threshold: " + thresholdSlider.getValue() + "%\n" +
@@ -1152,6 +1199,12 @@ public class MainWindow extends JFrame {
     
     private void updateUI() {
         SwingUtilities.invokeLater(() -> {
+            long refreshStart = System.nanoTime();
+            // Dashboard counts come from the running index; the history copy
+            // is only needed for the top-15 listing and serves that once
+            ConnectionCounterIndex index = monitor.getConnectionIndex();
+            List<ConnectionData> recent = monitor.getRecentConnections();
+            
             // Update dashboard
             Component[] tabs = ((JTabbedPane)getContentPane().getComponent(0)).getComponents();
             for (Component tab : tabs) {
@@ -1176,14 +1229,12 @@ public class MainWindow extends JFrame {
                         
                         JLabel connectionsLabel = (JLabel) panel.getClientProperty("connectionsLabel");
                         if (connectionsLabel != null) {
-                            connectionsLabel.setText("Active Connections: " + monitor.getRecentConnections().size());
+                            connectionsLabel.setText("Active Connections: " + index.getTotal());
                         }
                         
                         JLabel threatsLabel = (JLabel) panel.getClientProperty("threatsLabel");
                         if (threatsLabel != null) {
-                            long threatCount = monitor.getRecentConnections().stream()
-                                .filter(c -> c.getThreatScore() > 60)
-                                .count();
+                            long threatCount = index.getThreatCount();
                             threatsLabel.setText("Threats Detected: " + threatCount);
                             if (threatCount > 0) {
                                 threatsLabel.setForeground(Color.RED);
@@ -1201,16 +1252,16 @@ public class MainWindow extends JFrame {
             log.append("Last Update: ").append(new Date()).append("\n");
             log.append("Status: ").append(monitor.isMonitoring() ? "🟢 ACTIVE" : "🔴 INACTIVE").append("\n");
             log.append("Network Devices: ").append(monitor.getNetworkDevices().size()).append("\n");
-            log.append("Active Connections: ").append(monitor.getRecentConnections().size()).append("\n");
-            log.append("Blocked IPs: ").append(monitor.getBlockedIPs().size()).append("\n\n");
+            log.append("Active Connections: ").append(index.getTotal()).append("\n");
+            log.append("Blocked IPs: ").append(monitor.getBlockedIPs().size()).append("\n");
+            AdaptiveScheduler cycles = monitor.getConnectionScheduler();
+            log.append(String.format("Scan Interval: %.1fs (last cycle %d ms, overruns %d, skipped %d)\n\n",
+                cycles.getCurrentIntervalMillis() / 1000.0, cycles.getLastDurationMillis(),
+                cycles.getOverrunCount(), cycles.getSkippedCount()));
             
             // Count threats
-            long suspiciousCount = monitor.getRecentConnections().stream()
-                .filter(c -> c.getThreatScore() > 60 && c.getThreatScore() <= 80)
-                .count();
-            long maliciousCount = monitor.getRecentConnections().stream()
-                .filter(c -> c.getThreatScore() > 80)
-                .count();
+            long suspiciousCount = index.getSuspiciousCount();
+            long maliciousCount = index.getMaliciousCount();
             
             if (suspiciousCount > 0 || maliciousCount > 0) {
                 log.append("⚠️ THREAT ALERT ⚠️\n");
@@ -1221,8 +1272,6 @@ public class MainWindow extends JFrame {
             log.append("Recent Activity (Top 15 by threat score):\n");
             log.append("─────────────────────────────────────────\n");
             
-            List<ConnectionData> recent = monitor.getRecentConnections();
-            
             // Sort by threat score (highest first)
             List<ConnectionData> sorted = new ArrayList<>(recent);
             sorted.sort((a, b) -> Double.compare(b.getThreatScore(), a.getThreatScore()));
@@ -1238,9 +1287,7 @@ public class MainWindow extends JFrame {
                     threatIcon = "🔴";
                 } else if (conn.getThreatScore() > 60) {
                     threatIcon = "🟡";
-                } else if (conn.getRemoteIP().startsWith("192.168.") || 
-                          conn.getRemoteIP().equals("127.0.0.1") ||
-                          conn.getRemoteIP().equals("0.0.0.0")) {
+                } else if (conn.getRemoteAddress().isInternal()) {
                     threatIcon = "🟢"; // Internal - safe
                 } else {
                     threatIcon = "🔵"; // External - unknown
@@ -1273,6 +1320,7 @@ public class MainWindow extends JFrame {
             if (networkMapPanel != null) {
                 networkMapPanel.repaint();
             }
+            monitor.getMetrics().getUiRefresh().record(System.nanoTime() - refreshStart);
         });
     }
 }
\ No newline at end of file
@@ -4,25 +4,48 @@ import java.util.Date;
 
 public class ConnectionData {
     private String protocol;
-    private String localIP;
-    private String remoteIP;
+    private IpAddress localAddress;
+    private IpAddress remoteAddress;
     private int localPort;
     private int remotePort;
     private String state;
     private Date timestamp;
     private double threatScore;
     private String status;
+    private long firstSeen;
+    private long lastSeen;
+    private long inode;
+    private int pid;
+    private String processName;
+    private String commandLine;
+    // Traffic counters from packet capture: src is the initiator, dst the responder
+    private boolean remoteInitiated;
+    private long srcBytes;
+    private long dstBytes;
+    private long srcPackets;
+    private long dstPackets;
+    private int srcTcpFlags;
+    private int dstTcpFlags;
+    // Filled in by the reverse DNS resolver after the connection is published
+    private volatile String remoteHostname;
     
     // Constructor, getters, and setters
     public ConnectionData(String protocol, String localIP, String remoteIP, 
                          int localPort, int remotePort, String state) {
+        this(protocol, IpAddress.of(localIP), IpAddress.of(remoteIP), localPort, remotePort, state);
+    }
+    
+    public ConnectionData(String protocol, IpAddress localAddress, IpAddress remoteAddress,
+                         int localPort, int remotePort, String state) {
         this.protocol = protocol;
-        this.localIP = localIP;
-        this.remoteIP = remoteIP;
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
         this.localPort = localPort;
         this.remotePort = remotePort;
         this.state = state;
         this.timestamp = new Date();
+        this.firstSeen = timestamp.getTime();
+        this.lastSeen = firstSeen;
         this.threatScore = 0.0;
         this.status = "NORMAL";
     }
@@ -31,11 +54,18 @@ public class ConnectionData {
     public String getProtocol() { return protocol; }
     public void setProtocol(String protocol) { this.protocol = protocol; }
     
-    public String getLocalIP() { return localIP; }
-    public void setLocalIP(String localIP) { this.localIP = localIP; }
+    // Text forms are for display and persistence; checks and keys use the addresses
+    public String getLocalIP() { return localAddress.toString(); }
+    public void setLocalIP(String localIP) { this.localAddress = IpAddress.of(localIP); }
     
-    public String getRemoteIP() { return remoteIP; }
-    public void setRemoteIP(String remoteIP) { this.remoteIP = remoteIP; }
+    public String getRemoteIP() { return remoteAddress.toString(); }
+    public void setRemoteIP(String remoteIP) { this.remoteAddress = IpAddress.of(remoteIP); }
+    
+    public IpAddress getLocalAddress() { return localAddress; }
+    public void setLocalAddress(IpAddress localAddress) { this.localAddress = localAddress; }
+    
+    public IpAddress getRemoteAddress() { return remoteAddress; }
+    public void setRemoteAddress(IpAddress remoteAddress) { this.remoteAddress = remoteAddress; }
     
     public int getLocalPort() { return localPort; }
     public void setLocalPort(int localPort) { this.localPort = localPort; }
@@ -55,9 +85,70 @@ public class ConnectionData {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     
+    // First and last snapshot the socket was observed in (epoch millis)
+    public long getFirstSeen() { return firstSeen; }
+    public void setFirstSeen(long firstSeen) { this.firstSeen = firstSeen; }
+    
+    public long getLastSeen() { return lastSeen; }
+    public void setLastSeen(long lastSeen) { this.lastSeen = lastSeen; }
+    
+    public long getDurationMillis() { return Math.max(0, lastSeen - firstSeen); }
+    
+    // Kernel socket inode from /proc/net (0 when unknown)
+    public long getInode() { return inode; }
+    public void setInode(long inode) { this.inode = inode; }
+    
+    // Owning process id from the netstat PID column or the /proc socket index (0 when unknown)
+    public int getPid() { return pid; }
+    public void setPid(int pid) { this.pid = pid; }
+    
+    // Executable path and command line of the owning process (null when unknown)
+    public String getProcessName() { return processName; }
+    public void setProcessName(String processName) { this.processName = processName; }
+    
+    public String getCommandLine() { return commandLine; }
+    public void setCommandLine(String commandLine) { this.commandLine = commandLine; }
+    
+    // Which end opened the flow; local/remote only say which end is ours (sockets seen
+    // by polling are treated as locally initiated)
+    public boolean isRemoteInitiated() { return remoteInitiated; }
+    public void setRemoteInitiated(boolean remoteInitiated) { this.remoteInitiated = remoteInitiated; }
+    
+    public IpAddress getInitiatorAddress() { return remoteInitiated ? remoteAddress : localAddress; }
+    public int getInitiatorPort() { return remoteInitiated ? remotePort : localPort; }
+    
+    public IpAddress getResponderAddress() { return remoteInitiated ? localAddress : remoteAddress; }
+    public int getResponderPort() { return remoteInitiated ? localPort : remotePort; }
+    
+    // IP-layer bytes and packets per direction (all zero for sockets seen by polling)
+    public long getSrcBytes() { return srcBytes; }
+    public void setSrcBytes(long srcBytes) { this.srcBytes = srcBytes; }
+    
+    public long getDstBytes() { return dstBytes; }
+    public void setDstBytes(long dstBytes) { this.dstBytes = dstBytes; }
+    
+    public long getSrcPackets() { return srcPackets; }
+    public void setSrcPackets(long srcPackets) { this.srcPackets = srcPackets; }
+    
+    public long getDstPackets() { return dstPackets; }
+    public void setDstPackets(long dstPackets) { this.dstPackets = dstPackets; }
+    
+    public boolean hasTrafficCounts() { return srcPackets + dstPackets > 0; }
+    
+    // Union of TCP flags (FIN 0x01, SYN 0x02, RST 0x04, PSH 0x08, ACK 0x10, URG 0x20) sent per direction
+    public int getSrcTcpFlags() { return srcTcpFlags; }
+    public void setSrcTcpFlags(int srcTcpFlags) { this.srcTcpFlags = srcTcpFlags; }
+    
+    public int getDstTcpFlags() { return dstTcpFlags; }
+    public void setDstTcpFlags(int dstTcpFlags) { this.dstTcpFlags = dstTcpFlags; }
+    
+    // PTR name of the remote address (null until resolved, or when it has none)
+    public String getRemoteHostname() { return remoteHostname; }
+    public void setRemoteHostname(String remoteHostname) { this.remoteHostname = remoteHostname; }
+    
     @Override
     public String toString() {
         return String.format("%s %s:%d -> %s:%d [%s] Score: %.1f%%", 
-            protocol, localIP, localPort, remoteIP, remotePort, state, threatScore);
+            protocol, localAddress, localPort, remoteAddress, remotePort, state, threatScore);
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.security.models;
+
+import java.util.Objects;
+
+// Identity of a socket across snapshots: protocol plus both endpoints
+public final class ConnectionKey {
+    private final String protocol;
+    private final IpAddress localAddress;
+    private final int localPort;
+    private final IpAddress remoteAddress;
+    private final int remotePort;
+    private final int hash;
+    
+    public ConnectionKey(String protocol, IpAddress localAddress, int localPort, IpAddress remoteAddress, int remotePort) {
+        this.protocol = protocol;
+        this.localAddress = localAddress;
+        this.localPort = localPort;
+        this.remoteAddress = remoteAddress;
+        this.remotePort = remotePort;
+        this.hash = Objects.hash(protocol, localAddress, localPort, remoteAddress, remotePort);
+    }
+    
+    public static ConnectionKey of(ConnectionData connection) {
+        return new ConnectionKey(connection.getProtocol(), connection.getLocalAddress(), connection.getLocalPort(),
+                                 connection.getRemoteAddress(), connection.getRemotePort());
+    }
+    
+    public String getProtocol() { return protocol; }
+    public IpAddress getLocalAddress() { return localAddress; }
+    public int getLocalPort() { return localPort; }
+    public IpAddress getRemoteAddress() { return remoteAddress; }
+    public int getRemotePort() { return remotePort; }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConnectionKey)) return false;
+        ConnectionKey other = (ConnectionKey) o;
+        return localPort == other.localPort &&
+               remotePort == other.remotePort &&
+               Objects.equals(protocol, other.protocol) &&
+               Objects.equals(localAddress, other.localAddress) &&
+               Objects.equals(remoteAddress, other.remoteAddress);
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s %s:%d -> %s:%d", protocol, localAddress, localPort, remoteAddress, remotePort);
+    }
+}
\ No newline at end of file
@@ -5,9 +5,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class DeviceInfo {
-    private String ip;
-    private String hostname;
+    private IpAddress address;
+    // Set asynchronously once reverse DNS answers
+    private volatile String hostname;
     private String macAddress;
+    // Manufacturer from the MAC's OUI prefix (null when unknown)
+    private String vendor;
     private String os;
     private String deviceType;
     private String status;
@@ -23,8 +26,11 @@ public class DeviceInfo {
     }
     
     // Getters and setters
-    public String getIp() { return ip; }
-    public void setIp(String ip) { this.ip = ip; }
+    public String getIp() { return address != null ? address.toString() : null; }
+    public void setIp(String ip) { this.address = ip != null ? IpAddress.of(ip) : null; }
+    
+    public IpAddress getAddress() { return address; }
+    public void setAddress(IpAddress address) { this.address = address; }
     
     public String getHostname() { return hostname; }
     public void setHostname(String hostname) { this.hostname = hostname; }
@@ -32,6 +38,9 @@ public class DeviceInfo {
     public String getMacAddress() { return macAddress; }
     public void setMacAddress(String macAddress) { this.macAddress = macAddress; }
     
+    public String getVendor() { return vendor; }
+    public void setVendor(String vendor) { this.vendor = vendor; }
+    
     public String getOs() { return os; }
     public void setOs(String os) { this.os = os; }
     
@@ -0,0 +1,411 @@
+package com.security.models;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable IPv4 or IPv6 address held in binary form: one int for IPv4, two
+ * longs for IPv6. Instances are interned, so equal addresses seen in every
+ * snapshot share one object, and range checks are integer masks instead of
+ * string prefixes. IPv4-mapped IPv6 addresses (::ffff:a.b.c.d) become plain
+ * IPv4. Text is only produced by toString(), in dotted-quad or RFC 5952 form.
+ */
+public abstract class IpAddress {
+    // Bounds the intern table; cleared rather than evicted when full
+    private static final int MAX_INTERNED = 1 << 18;
+    private static final ConcurrentHashMap<IpAddress, IpAddress> INTERNED = new ConcurrentHashMap<>();
+    
+    public static final IpAddress ANY_IPV4 = ofIPv4(0);
+    public static final IpAddress ANY_IPV6 = ofIPv6(0, 0);
+    
+    // Formatted on first use; benign race, the text is always the same
+    private String text;
+    
+    IpAddress() {
+    }
+    
+    // address holds the octets in network order, most significant first
+    public static IpAddress ofIPv4(int address) {
+        return intern(new V4(address));
+    }
+    
+    public static IpAddress ofIPv6(long high, long low) {
+        if (high == 0 && (low >>> 32) == 0xFFFFL) {
+            return ofIPv4((int) low);
+        }
+        return intern(new V6(high, low));
+    }
+    
+    // 4 or 16 bytes in network order, as from InetAddress.getAddress() or a packet header
+    public static IpAddress ofBytes(byte[] bytes) {
+        if (bytes.length == 4) {
+            return ofIPv4(((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF));
+        }
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Not an IPv4 or IPv6 address: " + bytes.length + " bytes");
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (bytes[i] & 0xFF);
+            low = (low << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return ofIPv6(high, low);
+    }
+    
+    // Parses an address literal, throwing IllegalArgumentException when it is not one
+    public static IpAddress of(String text) {
+        IpAddress address = parse(text);
+        if (address == null) {
+            throw new IllegalArgumentException("Not an IP address: " + text);
+        }
+        return address;
+    }
+    
+    // Parses an address literal, or returns null; never resolves host names
+    public static IpAddress parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        return parse(bytes, 0, bytes.length);
+    }
+    
+    // Parses the ASCII literal in buf[from, to); a trailing IPv6 zone ("%12") is dropped
+    public static IpAddress parse(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == ':') {
+                return parseIPv6(buf, from, to);
+            }
+        }
+        int address = parseIPv4Bits(buf, from, to);
+        return address != -1 || isAllOnes(buf, from, to) ? ofIPv4(address) : null;
+    }
+    
+    public abstract boolean isIPv6();
+    
+    public abstract boolean isLoopback();
+    
+    // RFC 1918 for IPv4, unique local fc00::/7 for IPv6
+    public abstract boolean isPrivate();
+    
+    public abstract boolean isLinkLocal();
+    
+    public abstract boolean isUnspecified();
+    
+    // Anything that never leaves the host or the local network
+    public boolean isInternal() {
+        return isUnspecified() || isLoopback() || isPrivate() || isLinkLocal();
+    }
+    
+    // Network byte order, 4 or 16 bytes
+    public abstract byte[] toBytes();
+    
+    // For socket APIs; never triggers a name lookup
+    public InetAddress toInetAddress() {
+        try {
+            return InetAddress.getByAddress(toBytes());
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        String s = text;
+        if (s == null) {
+            s = format();
+            text = s;
+        }
+        return s;
+    }
+    
+    abstract String format();
+    
+    private static IpAddress intern(IpAddress address) {
+        IpAddress existing = INTERNED.get(address);
+        if (existing != null) {
+            return existing;
+        }
+        if (INTERNED.size() >= MAX_INTERNED) {
+            INTERNED.clear();
+        }
+        existing = INTERNED.putIfAbsent(address, address);
+        return existing != null ? existing : address;
+    }
+    
+    // Returns -1 on malformed input; 255.255.255.255 is told apart by isAllOnes()
+    private static int parseIPv4Bits(byte[] buf, int from, int to) {
+        int address = 0;
+        int octets = 0;
+        int i = from;
+        while (octets < 4) {
+            int value = 0;
+            int digits = 0;
+            while (i < to && buf[i] >= '0' && buf[i] <= '9' && digits < 3) {
+                value = value * 10 + (buf[i] - '0');
+                i++;
+                digits++;
+            }
+            if (digits == 0 || value > 255) {
+                return -1;
+            }
+            address = (address << 8) | value;
+            octets++;
+            if (octets < 4) {
+                if (i >= to || buf[i] != '.') {
+                    return -1;
+                }
+                i++;
+            }
+        }
+        return i == to ? address : -1;
+    }
+    
+    private static boolean isAllOnes(byte[] buf, int from, int to) {
+        String allOnes = "255.255.255.255";
+        if (to - from != allOnes.length()) {
+            return false;
+        }
+        for (int i = 0; i < allOnes.length(); i++) {
+            if (buf[from + i] != allOnes.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static IpAddress parseIPv6(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == '%') {
+                to = i;
+                break;
+            }
+        }
+        
+        int[] groups = new int[8];
+        int count = 0;
+        int gap = -1;
+        int i = from;
+        if (to - from >= 2 && buf[from] == ':' && buf[from + 1] == ':') {
+            gap = 0;
+            i += 2;
+        } else if (from < to && buf[from] == ':') {
+            return null;
+        }
+        
+        while (i < to) {
+            int start = i;
+            int value = 0;
+            int digit;
+            while (i < to && i - start < 4 && (digit = hexValue(buf[i])) >= 0) {
+                value = (value << 4) | digit;
+                i++;
+            }
+            
+            // Trailing dotted quad, as in ::ffff:192.0.2.1
+            if (i < to && buf[i] == '.') {
+                int address = parseIPv4Bits(buf, start, to);
+                if (count > 6 || (address == -1 && !isAllOnes(buf, start, to))) {
+                    return null;
+                }
+                groups[count++] = address >>> 16;
+                groups[count++] = address & 0xFFFF;
+                i = to;
+                break;
+            }
+            
+            if (i == start || count == 8) {
+                return null;
+            }
+            groups[count++] = value;
+            if (i == to) {
+                break;
+            }
+            if (buf[i] != ':') {
+                return null;
+            }
+            i++;
+            if (i < to && buf[i] == ':') {
+                if (gap >= 0) {
+                    return null;
+                }
+                gap = count;
+                i++;
+            } else if (i == to) {
+                return null;
+            }
+        }
+        
+        if (gap < 0 ? count != 8 : count > 7) {
+            return null;
+        }
+        
+        long high = 0;
+        long low = 0;
+        int zeros = 8 - count;
+        for (int k = 0; k < 8; k++) {
+            int group;
+            if (gap < 0 || k < gap) {
+                group = groups[k];
+            } else if (k < gap + zeros) {
+                group = 0;
+            } else {
+                group = groups[k - zeros];
+            }
+            if (k < 4) {
+                high = (high << 16) | group;
+            } else {
+                low = (low << 16) | group;
+            }
+        }
+        return ofIPv6(high, low);
+    }
+    
+    private static int hexValue(byte b) {
+        if (b >= '0' && b <= '9') return b - '0';
+        if (b >= 'A' && b <= 'F') return b - 'A' + 10;
+        if (b >= 'a' && b <= 'f') return b - 'a' + 10;
+        return -1;
+    }
+    
+    private static final class V4 extends IpAddress {
+        private final int address;
+        
+        V4(int address) {
+            this.address = address;
+        }
+        
+        @Override
+        public boolean isIPv6() { return false; }
+        
+        @Override
+        public boolean isLoopback() { return (address >>> 24) == 127; }
+        
+        @Override
+        public boolean isPrivate() {
+            return (address >>> 24) == 10                   // 10.0.0.0/8
+                || (address >>> 20) == ((172 << 4) | 1)     // 172.16.0.0/12
+                || (address >>> 16) == ((192 << 8) | 168);  // 192.168.0.0/16
+        }
+        
+        @Override
+        public boolean isLinkLocal() { return (address >>> 16) == ((169 << 8) | 254); }
+        
+        @Override
+        public boolean isUnspecified() { return address == 0; }
+        
+        @Override
+        public byte[] toBytes() {
+            return new byte[] {
+                (byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8), (byte) address
+            };
+        }
+        
+        @Override
+        String format() {
+            return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." +
+                   ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof V4 && ((V4) o).address == address;
+        }
+        
+        @Override
+        public int hashCode() {
+            return address * 0x9E3779B9;
+        }
+    }
+    
+    private static final class V6 extends IpAddress {
+        private final long high;
+        private final long low;
+        
+        V6(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+        
+        @Override
+        public boolean isIPv6() { return true; }
+        
+        @Override
+        public boolean isLoopback() { return high == 0 && low == 1; }
+        
+        @Override
+        public boolean isPrivate() { return (high >>> 57) == (0xFC >>> 1); }
+        
+        @Override
+        public boolean isLinkLocal() { return (high >>> 54) == (0xFE80 >>> 6); }
+        
+        @Override
+        public boolean isUnspecified() { return high == 0 && low == 0; }
+        
+        @Override
+        public byte[] toBytes() {
+            byte[] bytes = new byte[16];
+            for (int i = 0; i < 8; i++) {
+                bytes[i] = (byte) (high >>> (56 - 8 * i));
+                bytes[i + 8] = (byte) (low >>> (56 - 8 * i));
+            }
+            return bytes;
+        }
+        
+        // RFC 5952: lower case, no leading zeros, longest run of two or more zero groups as "::"
+        @Override
+        String format() {
+            int[] groups = new int[8];
+            for (int k = 0; k < 4; k++) {
+                groups[k] = (int) (high >>> (48 - 16 * k)) & 0xFFFF;
+                groups[k + 4] = (int) (low >>> (48 - 16 * k)) & 0xFFFF;
+            }
+            
+            int bestStart = -1;
+            int bestLength = 1;
+            for (int k = 0; k < 8; ) {
+                if (groups[k] != 0) {
+                    k++;
+                    continue;
+                }
+                int start = k;
+                while (k < 8 && groups[k] == 0) {
+                    k++;
+                }
+                if (k - start > bestLength) {
+                    bestStart = start;
+                    bestLength = k - start;
+                }
+            }
+            
+            StringBuilder sb = new StringBuilder(39);
+            for (int k = 0; k < 8; k++) {
+                if (k == bestStart) {
+                    sb.append("::");
+                    k += bestLength - 1;
+                    continue;
+                }
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                    sb.append(':');
+                }
+                sb.append(Integer.toHexString(groups[k]));
+            }
+            return sb.toString();
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof V6)) return false;
+            V6 other = (V6) o;
+            return high == other.high && low == other.low;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high * 31 + low);
+        }
+    }
+}
\ No newline at end of file
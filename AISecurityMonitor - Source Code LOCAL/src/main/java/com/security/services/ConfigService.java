@@ -0,0 +1,67 @@
+package com.security.services;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Properties;
+
+public class ConfigService {
+    private static final String CONFIG_FILE = "config.properties";
+    
+    private final Properties properties;
+    
+    public ConfigService() {
+        this.properties = new Properties();
+        loadConfig();
+    }
+    
+    private void loadConfig() {
+        File configFile = new File(CONFIG_FILE);
+        if (!configFile.exists()) {
+            return;
+        }
+        
+        try (InputStream in = new FileInputStream(configFile)) {
+            properties.load(in);
+        } catch (Exception e) {
+            System.err.println("Failed to load " + CONFIG_FILE + ": " + e.getMessage());
+        }
+    }
+    
+    public String getString(String key, String defaultValue) {
+        // System properties (-Dkey=value) override the config file
+        String value = System.getProperty(key, properties.getProperty(key));
+        return value != null ? value.trim() : defaultValue;
+    }
+    
+    public int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(getString(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    public long getLong(String key, long defaultValue) {
+        try {
+            return Long.parseLong(getString(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    public double getDouble(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(getString(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(getString(key, String.valueOf(defaultValue)));
+    }
+}
\ No newline at end of file
@@ -2,12 +2,53 @@ package com.security.services;
 
 import com.security.models.ConnectionData;
 import com.security.models.DeviceInfo;
+import com.security.models.IpAddress;
+import com.security.services.discovery.SubnetDiscovery;
+import com.security.services.netstat.NetstatParser;
+import com.security.services.procnet.ProcNetConnectionSource;
+import com.security.services.procnet.ProcessIndex;
+import com.security.services.synthetic.SyntheticLoadGenerator;
+import java.io.InputStream;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class NetworkScannerService {
     
+    private final SyntheticLoadGenerator syntheticLoad;
+    private final boolean syntheticOnly;
+    private final NetstatParser netstat = new NetstatParser();
+    private ProcNetConnectionSource procNet;
+    private ProcessIndex processIndex;
+    private final SubnetDiscovery discovery;
+    // Range to sweep ("192.168.1.0/24"); null sweeps the local interface's subnet
+    private final String discoveryCidr;
+    
+    public NetworkScannerService() {
+        this(new ConfigService());
+    }
+    
+    // Live scanning only, with discovery set up from config.properties
+    public NetworkScannerService(ConfigService config) {
+        this(null, false, SubnetDiscovery.fromConfig(config), config.getString("discovery.cidr", ""));
+    }
+    
+    // syntheticOnly replaces the live scan; otherwise the generator only fills in when the scan finds nothing
+    public NetworkScannerService(SyntheticLoadGenerator syntheticLoad, boolean syntheticOnly,
+                                 SubnetDiscovery discovery, String discoveryCidr) {
+        this.syntheticLoad = syntheticLoad;
+        this.syntheticOnly = syntheticOnly && syntheticLoad != null;
+        this.discovery = discovery;
+        this.discoveryCidr = discoveryCidr == null || discoveryCidr.isEmpty() ? null : discoveryCidr;
+    }
+    
     public List<ConnectionData> scanConnections() {
+        if (syntheticOnly) {
+            return syntheticLoad.generate();
+        }
+        
         List<ConnectionData> connections = new ArrayList<>();
         
         try {
@@ -18,9 +59,9 @@ public class NetworkScannerService {
                 connections.addAll(scanUnixConnections());
             }
             
-            // Add some simulated connections for demo
-            if (connections.isEmpty()) {
-                connections.addAll(generateDemoConnections());
+            // Fall back to synthetic load so the analysis path still has work
+            if (connections.isEmpty() && syntheticLoad != null) {
+                connections.addAll(syntheticLoad.generate());
             }
             
         } catch (Exception e) {
@@ -30,54 +71,60 @@ public class NetworkScannerService {
         return connections;
     }
     
-    public Map<String, DeviceInfo> scanNetworkDevices() {
-        Map<String, DeviceInfo> devices = new HashMap<>();
-        
+    public Map<IpAddress, DeviceInfo> scanNetworkDevices() {
+        Map<IpAddress, DeviceInfo> devices = new HashMap<>();
+        scanNetworkDevices(device -> devices.put(device.getAddress(), device));
+        return devices;
+    }
+    
+    // Reports each device to the listener as soon as it answers
+    public void scanNetworkDevices(Consumer<DeviceInfo> listener) {
+        scanNetworkDevices(null, listener);
+    }
+    
+    // Hosts accepted by alreadyKnown (e.g. seen in the neighbor table) are not probed;
+    // returns whether the whole range was swept, so absent hosts can be trusted as gone
+    public boolean scanNetworkDevices(Predicate<IpAddress> alreadyKnown, Consumer<DeviceInfo> listener) {
         try {
             // Get local IP
-            String localIP = getLocalIP();
+            InterfaceAddress local = getLocalInterfaceAddress();
+            IpAddress localIP = local != null ? IpAddress.of(local.getAddress().getHostAddress()) : IpAddress.of("127.0.0.1");
             
             // Add local device
             DeviceInfo localDevice = new DeviceInfo();
-            localDevice.setIp(localIP);
+            localDevice.setAddress(localIP);
             localDevice.setHostname(InetAddress.getLocalHost().getHostName());
             localDevice.setDeviceType("Computer");
             localDevice.setStatus("Online");
-            devices.put(localIP, localDevice);
+            listener.accept(localDevice);
             
-            // Scan local network (simplified - in reality, you'd scan a range)
-            for (int i = 1; i <= 10; i++) {
-                String ip = getNetworkPrefix(localIP) + i;
-                if (!ip.equals(localIP)) {
-                    DeviceInfo device = scanDevice(ip);
-                    if (device != null) {
-                        devices.put(ip, device);
-                    }
-                }
+            IpAddress network = localIP;
+            int prefix = local != null ? local.getNetworkPrefixLength() : 32;
+            if (discoveryCidr != null) {
+                int slash = discoveryCidr.indexOf('/');
+                network = IpAddress.of(slash >= 0 ? discoveryCidr.substring(0, slash) : discoveryCidr);
+                prefix = slash >= 0 ? Integer.parseInt(discoveryCidr.substring(slash + 1).trim()) : 32;
+            } else if (local == null) {
+                return false;
+            }
+            if (prefix < SubnetDiscovery.MIN_PREFIX_LENGTH) {
+                System.out.println("Discovery limited to the /" + SubnetDiscovery.MIN_PREFIX_LENGTH + " around " + network);
+                prefix = SubnetDiscovery.MIN_PREFIX_LENGTH;
             }
             
+            // Whole range in flight at once, bounded by the sweep's in-flight cap
+            Predicate<IpAddress> skip = alreadyKnown == null ? localIP::equals
+                : ip -> ip.equals(localIP) || alreadyKnown.test(ip);
+            discovery.sweep(network, prefix, skip, device -> {
+                device.setDeviceType(detectDeviceType(device.getIp()));
+                listener.accept(device);
+            });
+            return true;
+            
         } catch (Exception e) {
             e.printStackTrace();
+            return false;
         }
-        
-        return devices;
-    }
-    
-    private DeviceInfo scanDevice(String ip) {
-        try {
-            InetAddress address = InetAddress.getByName(ip);
-            if (address.isReachable(1000)) {
-                DeviceInfo device = new DeviceInfo();
-                device.setIp(ip);
-                device.setHostname(address.getHostName());
-                device.setStatus("Online");
-                device.setDeviceType(detectDeviceType(ip));
-                return device;
-            }
-        } catch (Exception e) {
-            // Device not reachable
-        }
-        return null;
     }
     
     private List<ConnectionData> scanWindowsConnections() throws Exception {
@@ -85,99 +132,58 @@ public class NetworkScannerService {
         ProcessBuilder pb = new ProcessBuilder("netstat", "-ano");
         Process process = pb.start();
         
-        try (Scanner scanner = new Scanner(process.getInputStream())) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.contains("TCP")) {
-                    ConnectionData conn = parseNetstatLine(line);
-                    if (conn != null) {
-                        connections.add(conn);
-                    }
-                }
+        // Parsed straight off the pipe; no per-line Strings
+        try (InputStream in = process.getInputStream()) {
+            synchronized (netstat) {
+                netstat.parse(in, connections::add);
             }
         }
         
         return connections;
     }
     
-    private ConnectionData parseNetstatLine(String line) {
-        try {
-            String[] parts = line.trim().split("\\s+");
-            if (parts.length >= 5) {
-                String protocol = parts[0];
-                String local = parts[1];
-                String remote = parts[2];
-                String state = parts[3];
-                
-                String[] localParts = local.split(":");
-                String[] remoteParts = remote.split(":");
-                
-                if (localParts.length >= 2 && remoteParts.length >= 2) {
-                    return new ConnectionData(
-                        protocol,
-                        localParts[0],
-                        remoteParts[0],
-                        Integer.parseInt(localParts[1]),
-                        Integer.parseInt(remoteParts[1]),
-                        state
-                    );
-                }
-            }
-        } catch (Exception e) {
-            // Ignore parsing errors
+    // Single "netstat -ano" row, e.g. from a recorded capture; null when it is not a socket row
+    public ConnectionData parseNetstatLine(String line) {
+        byte[] row = line.getBytes(StandardCharsets.ISO_8859_1);
+        synchronized (netstat) {
+            return netstat.parseRow(row, 0, row.length);
         }
-        return null;
     }
     
     private List<ConnectionData> scanUnixConnections() {
-        // Similar implementation for Unix systems
-        return new ArrayList<>();
-    }
-    
-    private List<ConnectionData> generateDemoConnections() {
-        List<ConnectionData> connections = new ArrayList<>();
-        Random random = new Random();
-        
-        String[] demoIPs = {
-            "192.168.1." + (random.nextInt(50) + 100),
-            "10.0.0." + (random.nextInt(50) + 100),
-            "172.16.0." + (random.nextInt(50) + 100)
-        };
-        
-        for (String ip : demoIPs) {
-            connections.add(new ConnectionData(
-                "TCP",
-                "127.0.0.1",
-                ip,
-                random.nextInt(50000) + 1000,
-                random.nextInt(100) + 80,
-                "ESTABLISHED"
-            ));
+        // Linux exposes the socket tables directly; no need to fork netstat/ss
+        if (procNet == null && ProcNetConnectionSource.isAvailable()) {
+            procNet = new ProcNetConnectionSource();
+            if (ProcessIndex.isAvailable()) {
+                processIndex = new ProcessIndex();
+            }
+        }
+        if (procNet == null) {
+            return new ArrayList<>();
         }
         
+        List<ConnectionData> connections = procNet.scan();
+        if (processIndex != null) {
+            processIndex.refresh();
+            processIndex.attribute(connections);
+        }
         return connections;
     }
     
-    private String getLocalIP() throws SocketException {
+    // First IPv4 address of the first interface that is up, with its prefix length
+    private InterfaceAddress getLocalInterfaceAddress() throws SocketException {
         Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
         while (interfaces.hasMoreElements()) {
             NetworkInterface ni = interfaces.nextElement();
             if (ni.isUp() && !ni.isLoopback()) {
-                Enumeration<InetAddress> addresses = ni.getInetAddresses();
-                while (addresses.hasMoreElements()) {
-                    InetAddress addr = addresses.nextElement();
-                    if (addr instanceof Inet4Address) {
-                        return addr.getHostAddress();
+                for (InterfaceAddress address : ni.getInterfaceAddresses()) {
+                    if (address.getAddress() instanceof Inet4Address) {
+                        return address;
                     }
                 }
             }
         }
-        return "127.0.0.1";
-    }
-    
-    private String getNetworkPrefix(String ip) {
-        String[] parts = ip.split("\\.");
-        return parts[0] + "." + parts[1] + "." + parts[2] + ".";
+        return null;
     }
     
     private String detectDeviceType(String ip) {
@@ -1,16 +1,26 @@
 package com.security.services;
 
 import com.security.models.ConnectionData;
+import com.security.models.IpAddress;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class ThreatDetectionService {
     
+    private static final String[] WRITABLE_EXE_DIRS = { "/tmp/", "/var/tmp/", "/dev/shm/", "/run/user/" };
+    private static final Set<String> NETWORK_SHELLS = new HashSet<>(Arrays.asList(
+        "sh", "bash", "dash", "zsh", "ksh", "nc", "ncat", "netcat", "socat", "telnet"
+    ));
+    
     private Set<Integer> suspiciousPorts;
-    private Map<String, Integer> ipReputation;
+    private Map<IpAddress, Integer> ipReputation;
+    private final List<Consumer<IpAddress>> reputationListeners = new CopyOnWriteArrayList<>();
     
     public ThreatDetectionService() {
         initializeSuspiciousPorts();
-        ipReputation = new HashMap<>();
+        ipReputation = new ConcurrentHashMap<>(); // read from analysis workers
     }
     
     private void initializeSuspiciousPorts() {
@@ -40,7 +50,7 @@ public class ThreatDetectionService {
         }
         
         // 2. Check for private IPs (usually safe)
-        if (isPrivateIP(connection.getRemoteIP())) {
+        if (connection.getRemoteAddress().isInternal()) {
             score -= 15; // Internal connections are safer
         } else {
             score += 25; // External connections are more suspicious
@@ -61,7 +71,7 @@ public class ThreatDetectionService {
         }
         
         // 5. Check IP reputation
-        Integer rep = ipReputation.get(connection.getRemoteIP());
+        Integer rep = ipReputation.get(connection.getRemoteAddress());
         if (rep != null) {
             score += rep;
         }
@@ -76,33 +86,53 @@ public class ThreatDetectionService {
             score -= 5;
         }
         
+        // 8. Owning process, when known
+        score += scoreProcess(connection);
+        
         return Math.min(100, Math.max(0, score));
     }
     
-    private boolean isPrivateIP(String ip) {
-        return ip.startsWith("192.168.") || 
-               ip.startsWith("10.") || 
-               ip.startsWith("172.16.") ||
-               ip.startsWith("172.17.") ||
-               ip.startsWith("172.18.") ||
-               ip.startsWith("172.19.") ||
-               ip.startsWith("172.20.") ||
-               ip.startsWith("172.21.") ||
-               ip.startsWith("172.22.") ||
-               ip.startsWith("172.23.") ||
-               ip.startsWith("172.24.") ||
-               ip.startsWith("172.25.") ||
-               ip.startsWith("172.26.") ||
-               ip.startsWith("172.27.") ||
-               ip.startsWith("172.28.") ||
-               ip.startsWith("172.29.") ||
-               ip.startsWith("172.30.") ||
-               ip.startsWith("172.31.") ||
-               ip.equals("127.0.0.1") ||
-               ip.equals("0.0.0.0");
+    private double scoreProcess(ConnectionData connection) {
+        String exe = connection.getProcessName();
+        if (exe == null) {
+            return 0;
+        }
+        
+        double score = 0;
+        // Binary removed from disk after launch: classic dropper behaviour
+        if (exe.endsWith(" (deleted)")) {
+            score += 30;
+        }
+        // Running from world-writable or memory-backed locations
+        for (String dir : WRITABLE_EXE_DIRS) {
+            if (exe.startsWith(dir)) {
+                score += 25;
+                break;
+            }
+        }
+        // A shell or relay tool holding a live network socket looks like a reverse shell
+        String name = exe.substring(exe.lastIndexOf('/') + 1);
+        if (NETWORK_SHELLS.contains(name) && "ESTABLISHED".equals(connection.getState())) {
+            score += 20;
+        }
+        return score;
     }
     
     public void flagIP(String ip, int severity) {
-        ipReputation.put(ip, severity);
+        flagIP(IpAddress.of(ip), severity);
+    }
+    
+    public void flagIP(IpAddress ip, int severity) {
+        Integer previous = ipReputation.put(ip, severity);
+        if (previous == null || previous != severity) {
+            for (Consumer<IpAddress> listener : reputationListeners) {
+                listener.accept(ip);
+            }
+        }
+    }
+    
+    // Notified with the IP whenever its reputation changes
+    public void addReputationListener(Consumer<IpAddress> listener) {
+        reputationListeners.add(listener);
     }
 }
\ No newline at end of file
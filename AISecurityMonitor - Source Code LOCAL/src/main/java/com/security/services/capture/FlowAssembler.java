@@ -0,0 +1,403 @@
+package com.security.services.capture;
+
+import com.security.models.ConnectionData;
+import com.security.models.IpAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.pcap4j.packet.EthernetPacket;
+import org.pcap4j.packet.IllegalRawDataException;
+import org.pcap4j.packet.IpPacket;
+import org.pcap4j.packet.IpSelector;
+import org.pcap4j.packet.IpV4Packet;
+import org.pcap4j.packet.IpV6ExtOptionsPacket;
+import org.pcap4j.packet.IpV6ExtRoutingPacket;
+import org.pcap4j.packet.IpV6Packet;
+import org.pcap4j.packet.LinuxSllPacket;
+import org.pcap4j.packet.Packet;
+import org.pcap4j.packet.TcpPacket;
+import org.pcap4j.packet.UdpPacket;
+
+/**
+ * Aggregates captured packets into bidirectional TCP and UDP flows.
+ *
+ * Plain IPv4/IPv6 TCP and UDP over Ethernet (with 802.1Q/802.1ad tags), Linux
+ * cooked or raw IP link types are decoded straight from the capture buffer;
+ * everything else (IPv6 extension headers, BSD loopback, odd encapsulations)
+ * goes through pcap4j, which is several times slower. Both directions of a
+ * 5-tuple land in the same flow; the side that sent the first packet is the
+ * initiator, unless that packet was a SYN-ACK, in which case the handshake was
+ * missed and the sender is the responder. Bytes (IP length), packets and TCP
+ * flags are counted per direction. Open flows are kept in an OffHeapFlowTable,
+ * so a capture with millions of concurrent flows stays off the Java heap;
+ * beyond the table's memory ceiling, packets opening new flows are counted and
+ * skipped.
+ *
+ * A TCP flow finishes once both sides sent FIN or either sent RST, after a
+ * short linger that absorbs the final ACK. Any flow idle for the idle timeout
+ * finishes too. Time is taken from packet timestamps, never the wall clock, so
+ * a capture assembles the same way however fast it is read. Finished flows go
+ * to the sink as ConnectionData. Not thread-safe.
+ */
+public class FlowAssembler implements PcapFileReader.PacketHandler {
+    public static final int TCP_FIN = 0x01;
+    public static final int TCP_SYN = 0x02;
+    public static final int TCP_RST = 0x04;
+    public static final int TCP_PSH = 0x08;
+    public static final int TCP_ACK = 0x10;
+    public static final int TCP_URG = 0x20;
+    
+    // libpcap LINKTYPE_* values
+    private static final int LINKTYPE_NULL = 0;
+    private static final int LINKTYPE_ETHERNET = 1;
+    private static final int LINKTYPE_RAW_OPENBSD = 12;
+    private static final int LINKTYPE_RAW = 101;
+    private static final int LINKTYPE_LOOP = 108;
+    private static final int LINKTYPE_LINUX_SLL = 113;
+    private static final int LINKTYPE_IPV4 = 228;
+    private static final int LINKTYPE_IPV6 = 229;
+    
+    private static final int ETHERTYPE_IPV4 = 0x0800;
+    private static final int ETHERTYPE_IPV6 = 0x86DD;
+    private static final int ETHERTYPE_VLAN = 0x8100;
+    private static final int ETHERTYPE_QINQ = 0x88A8;
+    
+    private static final int PROTO_TCP = 6;
+    private static final int PROTO_UDP = 17;
+    
+    // Results of the fast path
+    private static final int RECORDED = 0;
+    private static final int NOT_FLOW = 1;
+    private static final int NEEDS_DECODER = 2;
+    
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long CLOSE_LINGER_NANOS = TimeUnit.SECONDS.toNanos(2);
+    
+    private final long idleTimeoutNanos;
+    private final Consumer<ConnectionData> sink;
+    private final OffHeapFlowTable flows;
+    private final OffHeapFlowTable.FlowVisitor finisher = this::finish;
+    // Raw slots of flows finished under a table lock; ConnectionData is only built
+    // from them once the lock is released
+    private ByteBuffer finished = allocateSlots(64);
+    private int finishedCount;
+    private final OffHeapFlowTable.Flow finishedView = new OffHeapFlowTable.Flow();
+    
+    private long clock;
+    private long lastSweep;
+    
+    private long packets;
+    private long bytes;
+    private long ignored;
+    private long completed;
+    
+    public FlowAssembler(long idleTimeoutMillis, OffHeapFlowTable flows, Consumer<ConnectionData> sink) {
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.flows = flows;
+        this.sink = sink;
+    }
+    
+    @Override
+    public void packet(int linkType, long timestampNanos, byte[] data, int offset, int capturedLength, int originalLength) {
+        packets++;
+        bytes += originalLength;
+        // Out-of-order timestamps never move the capture clock backwards
+        clock = Math.max(clock, timestampNanos);
+        
+        int result = acceptRaw(linkType, data, offset, capturedLength);
+        if (result == NOT_FLOW || (result == NEEDS_DECODER && !accept(linkType, data, offset, capturedLength))) {
+            ignored++;
+        }
+        
+        if (clock - lastSweep >= SWEEP_INTERVAL_NANOS) {
+            flows.expire(clock, idleTimeoutNanos, CLOSE_LINGER_NANOS, finisher);
+            lastSweep = clock;
+        }
+        deliver();
+    }
+    
+    private static int u16(byte[] b, int i) {
+        return ((b[i] & 0xFF) << 8) | (b[i + 1] & 0xFF);
+    }
+    
+    private static int s32(byte[] b, int i) {
+        return (u16(b, i) << 16) | u16(b, i + 2);
+    }
+    
+    private static long s64(byte[] b, int i) {
+        return ((long) s32(b, i) << 32) | (s32(b, i + 4) & 0xFFFFFFFFL);
+    }
+    
+    // Finishes every open flow, e.g. at the end of the capture
+    public void flush() {
+        flows.drain(finisher);
+        deliver();
+    }
+    
+    public long getPackets() { return packets; }
+    public long getBytes() { return bytes; }
+    // Non-IP, non-TCP/UDP, fragmented or undecodable packets
+    public long getIgnored() { return ignored; }
+    public long getCompletedFlows() { return completed; }
+    public int getActiveFlows() { return flows.size(); }
+    // New flows skipped because the flow table was at its memory ceiling
+    public long getDroppedFlows() { return flows.getDropped(); }
+    public OffHeapFlowTable getFlowTable() { return flows; }
+    
+    // Fast path: reads the link, IP and transport headers in place
+    private int acceptRaw(int linkType, byte[] data, int offset, int length) {
+        int end = offset + length;
+        int ip;
+        int etherType;
+        switch (linkType) {
+            case LINKTYPE_ETHERNET:
+                ip = offset + 14;
+                if (ip > end) {
+                    return NOT_FLOW;
+                }
+                etherType = u16(data, ip - 2);
+                while ((etherType == ETHERTYPE_VLAN || etherType == ETHERTYPE_QINQ) && ip + 4 <= end) {
+                    etherType = u16(data, ip + 2);
+                    ip += 4;
+                }
+                break;
+            case LINKTYPE_LINUX_SLL:
+                ip = offset + 16;
+                if (ip > end) {
+                    return NOT_FLOW;
+                }
+                etherType = u16(data, ip - 2);
+                break;
+            case LINKTYPE_RAW:
+            case LINKTYPE_RAW_OPENBSD:
+            case LINKTYPE_IPV4:
+            case LINKTYPE_IPV6:
+                ip = offset;
+                if (ip >= end) {
+                    return NOT_FLOW;
+                }
+                etherType = (data[ip] & 0xF0) == 0x60 ? ETHERTYPE_IPV6 : ETHERTYPE_IPV4;
+                break;
+            default:
+                return NEEDS_DECODER;
+        }
+        
+        boolean ipv6;
+        long srcHigh = 0;
+        long srcLow;
+        long dstHigh = 0;
+        long dstLow;
+        int protocol;
+        int ipLength;
+        int transport;
+        if (etherType == ETHERTYPE_IPV4) {
+            if (ip + 20 > end || (data[ip] & 0xF0) != 0x40) {
+                return NOT_FLOW;
+            }
+            // Later fragments carry no ports
+            if ((u16(data, ip + 6) & 0x1FFF) != 0) {
+                return NOT_FLOW;
+            }
+            ipLength = u16(data, ip + 2);
+            protocol = data[ip + 9] & 0xFF;
+            ipv6 = false;
+            srcLow = s32(data, ip + 12) & 0xFFFFFFFFL;
+            dstLow = s32(data, ip + 16) & 0xFFFFFFFFL;
+            transport = ip + (data[ip] & 0x0F) * 4;
+        } else if (etherType == ETHERTYPE_IPV6) {
+            if (ip + 40 > end || (data[ip] & 0xF0) != 0x60) {
+                return NOT_FLOW;
+            }
+            protocol = data[ip + 6] & 0xFF;
+            if (protocol != PROTO_TCP && protocol != PROTO_UDP) {
+                // Extension headers, ICMPv6 and the rest
+                return NEEDS_DECODER;
+            }
+            ipLength = u16(data, ip + 4) + 40;
+            ipv6 = true;
+            srcHigh = s64(data, ip + 8);
+            srcLow = s64(data, ip + 16);
+            dstHigh = s64(data, ip + 24);
+            dstLow = s64(data, ip + 32);
+            transport = ip + 40;
+        } else {
+            return NOT_FLOW;
+        }
+        
+        int flags = 0;
+        if (protocol == PROTO_TCP) {
+            if (transport + 14 > end) {
+                return NOT_FLOW;
+            }
+            flags = data[transport + 13] & 0x3F;
+        } else if (protocol == PROTO_UDP) {
+            if (transport + 4 > end) {
+                return NOT_FLOW;
+            }
+        } else {
+            return NOT_FLOW;
+        }
+        record(protocol, ipv6, srcHigh, srcLow, u16(data, transport), dstHigh, dstLow, u16(data, transport + 2),
+            ipLength, flags);
+        return RECORDED;
+    }
+    
+    // General path through pcap4j for what the fast path does not handle
+    private boolean accept(int linkType, byte[] data, int offset, int length) {
+        Packet packet;
+        try {
+            packet = decode(linkType, data, offset, length);
+        } catch (IllegalRawDataException e) {
+            return false;
+        }
+        IpPacket ip = packet != null ? packet.get(IpPacket.class) : null;
+        if (ip == null) {
+            return false;
+        }
+        
+        int ipLength;
+        if (ip instanceof IpV4Packet) {
+            ipLength = ((IpV4Packet) ip).getHeader().getTotalLengthAsInt();
+        } else if (ip instanceof IpV6Packet) {
+            ipLength = ((IpV6Packet) ip).getHeader().getPayloadLengthAsInt() + 40;
+        } else {
+            return false;
+        }
+        
+        // Skip IPv6 extension headers; fragments and ICMP errors quoting a TCP header are not flow traffic
+        Packet payload = ip.getPayload();
+        while (payload instanceof IpV6ExtOptionsPacket || payload instanceof IpV6ExtRoutingPacket) {
+            payload = payload.getPayload();
+        }
+        
+        int protocol;
+        int srcPort;
+        int dstPort;
+        int flags = 0;
+        if (payload instanceof TcpPacket) {
+            TcpPacket.TcpHeader tcp = ((TcpPacket) payload).getHeader();
+            protocol = PROTO_TCP;
+            srcPort = tcp.getSrcPort().valueAsInt();
+            dstPort = tcp.getDstPort().valueAsInt();
+            flags = (tcp.getFin() ? TCP_FIN : 0) | (tcp.getSyn() ? TCP_SYN : 0) | (tcp.getRst() ? TCP_RST : 0)
+                  | (tcp.getPsh() ? TCP_PSH : 0) | (tcp.getAck() ? TCP_ACK : 0) | (tcp.getUrg() ? TCP_URG : 0);
+        } else if (payload instanceof UdpPacket) {
+            UdpPacket.UdpHeader udp = ((UdpPacket) payload).getHeader();
+            protocol = PROTO_UDP;
+            srcPort = udp.getSrcPort().valueAsInt();
+            dstPort = udp.getDstPort().valueAsInt();
+        } else {
+            return false;
+        }
+        
+        byte[] src = ip.getHeader().getSrcAddr().getAddress();
+        byte[] dst = ip.getHeader().getDstAddr().getAddress();
+        boolean ipv6 = src.length == 16;
+        record(protocol, ipv6, ipv6 ? s64(src, 0) : 0, ipv6 ? s64(src, 8) : s32(src, 0) & 0xFFFFFFFFL, srcPort,
+            ipv6 ? s64(dst, 0) : 0, ipv6 ? s64(dst, 8) : s32(dst, 0) & 0xFFFFFFFFL, dstPort, ipLength, flags);
+        return true;
+    }
+    
+    private static Packet decode(int linkType, byte[] data, int offset, int length) throws IllegalRawDataException {
+        switch (linkType) {
+            case LINKTYPE_ETHERNET:
+                return EthernetPacket.newPacket(data, offset, length);
+            case LINKTYPE_LINUX_SLL:
+                return LinuxSllPacket.newPacket(data, offset, length);
+            case LINKTYPE_RAW:
+            case LINKTYPE_RAW_OPENBSD:
+            case LINKTYPE_IPV4:
+            case LINKTYPE_IPV6:
+                return IpSelector.newPacket(data, offset, length);
+            case LINKTYPE_NULL:
+            case LINKTYPE_LOOP:
+                // 4-byte address family header, then the IP packet
+                return length > 4 ? IpSelector.newPacket(data, offset + 4, length - 4) : null;
+            default:
+                return null;
+        }
+    }
+    
+    private void record(int protocol, boolean ipv6, long srcHigh, long srcLow, int srcPort,
+                        long dstHigh, long dstLow, int dstPort, int ipLength, int flags) {
+        // Refused when the table is full; the table counts those
+        flows.update(protocol, ipv6, srcHigh, srcLow, srcPort, dstHigh, dstLow, dstPort, clock, ipLength, flags, finisher);
+    }
+    
+    // Copies a finished flow out of the table; runs under the shard lock, so nothing is allocated
+    // here except when the buffer has to grow
+    private void finish(OffHeapFlowTable.Flow flow) {
+        int offset = finishedCount * OffHeapFlowTable.SLOT_SIZE;
+        if (offset + OffHeapFlowTable.SLOT_SIZE > finished.capacity()) {
+            ByteBuffer grown = allocateSlots(finished.capacity() / OffHeapFlowTable.SLOT_SIZE * 2);
+            grown.put(0, finished, 0, offset);
+            finished = grown;
+        }
+        flow.copyTo(finished, offset);
+        finishedCount++;
+    }
+    
+    private void deliver() {
+        if (finishedCount == 0) {
+            return;
+        }
+        int count = finishedCount;
+        finishedCount = 0;
+        completed += count;
+        for (int i = 0; i < count; i++) {
+            sink.accept(toConnection(finishedView.at(finished, i * OffHeapFlowTable.SLOT_SIZE)));
+        }
+    }
+    
+    // The external end of the flow is the remote one, whichever side opened it, so inbound
+    // connections to an internal host are scored like outbound ones; when both ends are
+    // internal or both external the initiator is taken as local
+    private static ConnectionData toConnection(OffHeapFlowTable.Flow flow) {
+        String protocol = flow.getProtocol() == PROTO_TCP ? "TCP" : "UDP";
+        IpAddress src = flow.getSrc();
+        IpAddress dst = flow.getDst();
+        ConnectionData conn;
+        if (dst.isInternal() && !src.isInternal()) {
+            conn = new ConnectionData(protocol, dst, src, flow.getDstPort(), flow.getSrcPort(), state(flow));
+            conn.setRemoteInitiated(true);
+        } else {
+            conn = new ConnectionData(protocol, src, dst, flow.getSrcPort(), flow.getDstPort(), state(flow));
+        }
+        long firstMillis = TimeUnit.NANOSECONDS.toMillis(flow.getFirstNanos());
+        conn.setTimestamp(new Date(firstMillis));
+        conn.setFirstSeen(firstMillis);
+        conn.setLastSeen(TimeUnit.NANOSECONDS.toMillis(flow.getLastNanos()));
+        conn.setSrcBytes(flow.getSrcBytes());
+        conn.setDstBytes(flow.getDstBytes());
+        conn.setSrcPackets(flow.getSrcPackets());
+        conn.setDstPackets(flow.getDstPackets());
+        conn.setSrcTcpFlags(flow.getSrcFlags());
+        conn.setDstTcpFlags(flow.getDstFlags());
+        return conn;
+    }
+    
+    // Same byte order as the table's slots, so copied slots read back unchanged
+    private static ByteBuffer allocateSlots(int slots) {
+        return ByteBuffer.allocate(slots * OffHeapFlowTable.SLOT_SIZE).order(ByteOrder.nativeOrder());
+    }
+    
+    // Closest netstat state, so the rule engine reads flows the way it reads sockets
+    private static String state(OffHeapFlowTable.Flow flow) {
+        if (flow.getProtocol() != PROTO_TCP) {
+            return "";
+        }
+        int all = flow.getSrcFlags() | flow.getDstFlags();
+        if ((all & TCP_RST) != 0) {
+            return "CLOSED";
+        }
+        if (flow.isClosed()) {
+            return "TIME_WAIT";
+        }
+        if (flow.getDstPackets() == 0 && (flow.getSrcFlags() & TCP_SYN) != 0) {
+            return "SYN_SENT";
+        }
+        return "ESTABLISHED";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,416 @@
+package com.security.services.capture;
+
+import com.security.models.IpAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Bidirectional flow table kept in direct memory, so millions of tracked flows
+ * cost the garbage collector nothing.
+ *
+ * Flows live in fixed 96-byte slots of open-addressed (linear probing) tables,
+ * one per shard, each in its own direct ByteBuffer and guarded by its own lock,
+ * so several capture threads can update the table at once. The hash of a
+ * 5-tuple is the same in both directions, which puts a flow and its replies on
+ * one probe sequence. A shard starts small and doubles until its share of the
+ * memory ceiling is reached; past that, packets opening new flows in the shard
+ * are counted as dropped until idle flows are expired. Removal shifts the rest
+ * of the probe run back instead of leaving tombstones.
+ *
+ * Addresses are passed as raw bits: IPv4 in the low 32 bits of low with high 0,
+ * IPv6 as its upper and lower 64 bits. Flows handed to a FlowVisitor are views
+ * over the slot, valid only during the call, which runs under the shard lock:
+ * copy what is needed (copyTo() takes the raw slot) and do not call back into
+ * the table.
+ */
+public class OffHeapFlowTable {
+    public static final int SLOT_SIZE = 96;
+    
+    // Slot layout
+    private static final int USED = 0;
+    private static final int PROTOCOL = 1;
+    private static final int FAMILY = 2;
+    private static final int CLOSED = 3;
+    private static final int HASH = 4;
+    private static final int SRC_PORT = 8;
+    private static final int DST_PORT = 10;
+    private static final int SRC_FLAGS = 12;
+    private static final int DST_FLAGS = 13;
+    private static final int SRC_HIGH = 16;
+    private static final int SRC_LOW = 24;
+    private static final int DST_HIGH = 32;
+    private static final int DST_LOW = 40;
+    private static final int FIRST_NANOS = 48;
+    private static final int LAST_NANOS = 56;
+    private static final int SRC_BYTES = 64;
+    private static final int DST_BYTES = 72;
+    private static final int SRC_PACKETS = 80;
+    private static final int DST_PACKETS = 88;
+    
+    private static final int PROTO_TCP = 6;
+    private static final int INITIAL_SLOTS = 1024;
+    // One direct buffer stays under 2 GB
+    private static final int MAX_SLOTS_PER_SHARD = 1 << 24;
+    
+    @FunctionalInterface
+    public interface FlowVisitor {
+        void flow(Flow flow);
+    }
+    
+    private final Shard[] shards;
+    private final int shardMask;
+    private final long maxBytes;
+    
+    // shardCount is rounded up to a power of two; maxBytes caps all shards together
+    public OffHeapFlowTable(long maxBytes, int shardCount) {
+        int count = Integer.highestOneBit(Math.max(1, Math.min(shardCount, 1 << 10)) * 2 - 1);
+        long perShard = maxBytes / count / SLOT_SIZE;
+        int maxSlots = (int) Math.max(64, Math.min(MAX_SLOTS_PER_SHARD, Long.highestOneBit(Math.max(1, perShard))));
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(Math.min(INITIAL_SLOTS, maxSlots), maxSlots);
+        }
+        this.shardMask = count - 1;
+        this.maxBytes = (long) maxSlots * SLOT_SIZE * count;
+    }
+    
+    /**
+     * Counts one packet of ipLength bytes sent from src to dst at nowNanos.
+     * The sender of a flow's first packet becomes its initiator (src), unless
+     * that packet is a SYN-ACK. A pure SYN on a closed TCP flow starts a new
+     * flow in the same slot and hands the old one to finished. Returns false
+     * when the packet opens a flow and its shard is at the memory ceiling.
+     */
+    public boolean update(int protocol, boolean ipv6, long srcHigh, long srcLow, int srcPort,
+                          long dstHigh, long dstLow, int dstPort,
+                          long nowNanos, int ipLength, int flags, FlowVisitor finished) {
+        long hash = hash(protocol, srcHigh, srcLow, srcPort, dstHigh, dstLow, dstPort);
+        Shard shard = shards[(int) (hash >>> 40) & shardMask];
+        int slotHash = (int) hash;
+        
+        synchronized (shard) {
+            ByteBuffer buf = shard.slots;
+            int mask = shard.mask;
+            int i = slotHash & mask;
+            boolean fromInitiator = true;
+            int at = -1;
+            for (; buf.get(i * SLOT_SIZE + USED) != 0; i = (i + 1) & mask) {
+                int p = i * SLOT_SIZE;
+                if (buf.getInt(p + HASH) != slotHash || buf.get(p + PROTOCOL) != protocol
+                        || (buf.get(p + FAMILY) == 6) != ipv6) {
+                    continue;
+                }
+                if (matches(buf, p, srcHigh, srcLow, srcPort, dstHigh, dstLow, dstPort)) {
+                    at = p;
+                    break;
+                }
+                if (matches(buf, p, dstHigh, dstLow, dstPort, srcHigh, srcLow, srcPort)) {
+                    at = p;
+                    fromInitiator = false;
+                    break;
+                }
+            }
+            
+            // A new SYN on a finished 5-tuple is a new connection reusing the ports
+            if (at >= 0 && buf.get(at + CLOSED) != 0 && (flags & (FlowAssembler.TCP_SYN | FlowAssembler.TCP_ACK)) == FlowAssembler.TCP_SYN) {
+                finished.flow(shard.view.at(buf, at));
+                init(buf, at, slotHash, protocol, ipv6, srcHigh, srcLow, srcPort, dstHigh, dstLow, dstPort, nowNanos);
+                fromInitiator = true;
+            }
+            
+            if (at < 0) {
+                if (shard.size + 1 > shard.capacity() - (shard.capacity() >>> 2)) {
+                    if (shard.capacity() >= shard.maxSlots || !shard.grow()) {
+                        shard.dropped++;
+                        return false;
+                    }
+                    buf = shard.slots;
+                    mask = shard.mask;
+                    i = slotHash & mask;
+                    while (buf.get(i * SLOT_SIZE + USED) != 0) {
+                        i = (i + 1) & mask;
+                    }
+                }
+                at = i * SLOT_SIZE;
+                shard.size++;
+                // A SYN-ACK first means the handshake was missed; its sender is the responder
+                if (protocol == PROTO_TCP && (flags & (FlowAssembler.TCP_SYN | FlowAssembler.TCP_ACK)) == (FlowAssembler.TCP_SYN | FlowAssembler.TCP_ACK)) {
+                    init(buf, at, slotHash, protocol, ipv6, dstHigh, dstLow, dstPort, srcHigh, srcLow, srcPort, nowNanos);
+                    fromInitiator = false;
+                } else {
+                    init(buf, at, slotHash, protocol, ipv6, srcHigh, srcLow, srcPort, dstHigh, dstLow, dstPort, nowNanos);
+                }
+            }
+            
+            if (nowNanos > buf.getLong(at + LAST_NANOS)) {
+                buf.putLong(at + LAST_NANOS, nowNanos);
+            }
+            int srcFlags = buf.get(at + SRC_FLAGS);
+            int dstFlags = buf.get(at + DST_FLAGS);
+            if (fromInitiator) {
+                buf.putLong(at + SRC_BYTES, buf.getLong(at + SRC_BYTES) + ipLength);
+                buf.putLong(at + SRC_PACKETS, buf.getLong(at + SRC_PACKETS) + 1);
+                srcFlags |= flags;
+                buf.put(at + SRC_FLAGS, (byte) srcFlags);
+            } else {
+                buf.putLong(at + DST_BYTES, buf.getLong(at + DST_BYTES) + ipLength);
+                buf.putLong(at + DST_PACKETS, buf.getLong(at + DST_PACKETS) + 1);
+                dstFlags |= flags;
+                buf.put(at + DST_FLAGS, (byte) dstFlags);
+            }
+            if (protocol == PROTO_TCP) {
+                boolean closed = ((srcFlags | dstFlags) & FlowAssembler.TCP_RST) != 0
+                    || ((srcFlags & FlowAssembler.TCP_FIN) != 0 && (dstFlags & FlowAssembler.TCP_FIN) != 0);
+                buf.put(at + CLOSED, (byte) (closed ? 1 : 0));
+            }
+            return true;
+        }
+    }
+    
+    // Removes and visits flows idle for idleNanos, or closed and idle for lingerNanos; returns how many
+    public int expire(long nowNanos, long idleNanos, long lingerNanos, FlowVisitor finished) {
+        int expired = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                ByteBuffer buf = shard.slots;
+                int i = 0;
+                while (i < shard.capacity()) {
+                    int p = i * SLOT_SIZE;
+                    if (buf.get(p + USED) != 0) {
+                        long idle = nowNanos - buf.getLong(p + LAST_NANOS);
+                        if (idle >= idleNanos || (buf.get(p + CLOSED) != 0 && idle >= lingerNanos)) {
+                            finished.flow(shard.view.at(buf, p));
+                            shard.remove(i);
+                            expired++;
+                            // The slot now holds a shifted-back flow, or is empty
+                            continue;
+                        }
+                    }
+                    i++;
+                }
+            }
+        }
+        return expired;
+    }
+    
+    // Removes and visits every flow
+    public void drain(FlowVisitor finished) {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                ByteBuffer buf = shard.slots;
+                for (int i = 0; i < shard.capacity(); i++) {
+                    int p = i * SLOT_SIZE;
+                    if (buf.get(p + USED) != 0) {
+                        finished.flow(shard.view.at(buf, p));
+                        buf.put(p + USED, (byte) 0);
+                    }
+                }
+                shard.size = 0;
+            }
+        }
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size;
+            }
+        }
+        return size;
+    }
+    
+    // New flows refused because their shard was at the memory ceiling
+    public long getDropped() {
+        long dropped = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                dropped += shard.dropped;
+            }
+        }
+        return dropped;
+    }
+    
+    // Direct memory currently allocated
+    public long getAllocatedBytes() {
+        long bytes = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                bytes += (long) shard.capacity() * SLOT_SIZE;
+            }
+        }
+        return bytes;
+    }
+    
+    // Ceiling rounded down to whole power-of-two shards
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    // Flows the table can hold at the ceiling (75% load)
+    public long getMaxFlows() {
+        return maxBytes / SLOT_SIZE / 4 * 3;
+    }
+    
+    private static boolean matches(ByteBuffer buf, int p, long srcHigh, long srcLow, int srcPort,
+                                   long dstHigh, long dstLow, int dstPort) {
+        return buf.getLong(p + SRC_LOW) == srcLow && buf.getLong(p + DST_LOW) == dstLow
+            && buf.getChar(p + SRC_PORT) == srcPort && buf.getChar(p + DST_PORT) == dstPort
+            && buf.getLong(p + SRC_HIGH) == srcHigh && buf.getLong(p + DST_HIGH) == dstHigh;
+    }
+    
+    private static void init(ByteBuffer buf, int p, int slotHash, int protocol, boolean ipv6,
+                             long srcHigh, long srcLow, int srcPort, long dstHigh, long dstLow, int dstPort,
+                             long nowNanos) {
+        buf.put(p + USED, (byte) 1);
+        buf.put(p + PROTOCOL, (byte) protocol);
+        buf.put(p + FAMILY, (byte) (ipv6 ? 6 : 4));
+        buf.put(p + CLOSED, (byte) 0);
+        buf.putInt(p + HASH, slotHash);
+        buf.putChar(p + SRC_PORT, (char) srcPort);
+        buf.putChar(p + DST_PORT, (char) dstPort);
+        buf.put(p + SRC_FLAGS, (byte) 0);
+        buf.put(p + DST_FLAGS, (byte) 0);
+        buf.putLong(p + SRC_HIGH, srcHigh);
+        buf.putLong(p + SRC_LOW, srcLow);
+        buf.putLong(p + DST_HIGH, dstHigh);
+        buf.putLong(p + DST_LOW, dstLow);
+        buf.putLong(p + FIRST_NANOS, nowNanos);
+        buf.putLong(p + LAST_NANOS, nowNanos);
+        buf.putLong(p + SRC_BYTES, 0);
+        buf.putLong(p + DST_BYTES, 0);
+        buf.putLong(p + SRC_PACKETS, 0);
+        buf.putLong(p + DST_PACKETS, 0);
+    }
+    
+    // Same value for both directions: the two endpoints are mixed, then added
+    private static long hash(int protocol, long srcHigh, long srcLow, int srcPort, long dstHigh, long dstLow, int dstPort) {
+        long a = mix(srcHigh * 0x9E3779B97F4A7C15L ^ srcLow ^ ((long) srcPort << 48));
+        long b = mix(dstHigh * 0x9E3779B97F4A7C15L ^ dstLow ^ ((long) dstPort << 48));
+        return mix(a + b + protocol);
+    }
+    
+    // MurmurHash3 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+    
+    private static final class Shard {
+        int maxSlots;
+        final Flow view = new Flow();
+        ByteBuffer slots;
+        int mask;
+        int size;
+        long dropped;
+        
+        Shard(int slots, int maxSlots) {
+            this.maxSlots = maxSlots;
+            this.slots = allocate(slots);
+            this.mask = slots - 1;
+        }
+        
+        int capacity() {
+            return mask + 1;
+        }
+        
+        // False when the JVM's direct memory limit (-XX:MaxDirectMemorySize) is below the ceiling
+        boolean grow() {
+            ByteBuffer old = slots;
+            int oldCapacity = capacity();
+            try {
+                slots = allocate(oldCapacity * 2);
+            } catch (OutOfMemoryError e) {
+                System.err.println("Flow table shard capped at " + oldCapacity + " slots: " + e.getMessage());
+                maxSlots = oldCapacity;
+                return false;
+            }
+            mask = oldCapacity * 2 - 1;
+            for (int i = 0; i < oldCapacity; i++) {
+                int from = i * SLOT_SIZE;
+                if (old.get(from + USED) == 0) {
+                    continue;
+                }
+                int j = old.getInt(from + HASH) & mask;
+                while (slots.get(j * SLOT_SIZE + USED) != 0) {
+                    j = (j + 1) & mask;
+                }
+                copy(old, from, slots, j * SLOT_SIZE);
+            }
+            return true;
+        }
+        
+        // Backward-shift deletion: later flows of the probe run move up into the gap
+        void remove(int i) {
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                int q = j * SLOT_SIZE;
+                if (slots.get(q + USED) == 0) {
+                    break;
+                }
+                int home = slots.getInt(q + HASH) & mask;
+                // The flow at j may fill i when i lies between its home slot and j
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    copy(slots, q, slots, i * SLOT_SIZE);
+                    i = j;
+                }
+            }
+            slots.put(i * SLOT_SIZE + USED, (byte) 0);
+            size--;
+        }
+        
+        private static ByteBuffer allocate(int slots) {
+            return ByteBuffer.allocateDirect(slots * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        }
+        
+        private static void copy(ByteBuffer from, int p, ByteBuffer to, int q) {
+            for (int k = 0; k < SLOT_SIZE; k += 8) {
+                to.putLong(q + k, from.getLong(p + k));
+            }
+        }
+    }
+    
+    /** Read-only view of one slot, reused across visits. */
+    public static final class Flow {
+        private ByteBuffer buf;
+        private int p;
+        
+        Flow at(ByteBuffer buf, int p) {
+            this.buf = buf;
+            this.p = p;
+            return this;
+        }
+        
+        // Copies the raw slot into dest at offset; a Flow placed on dest reads it back
+        void copyTo(ByteBuffer dest, int offset) {
+            dest.put(offset, buf, p, SLOT_SIZE);
+        }
+        
+        public int getProtocol() { return buf.get(p + PROTOCOL) & 0xFF; }
+        public boolean isClosed() { return buf.get(p + CLOSED) != 0; }
+        public int getSrcPort() { return buf.getChar(p + SRC_PORT); }
+        public int getDstPort() { return buf.getChar(p + DST_PORT); }
+        public int getSrcFlags() { return buf.get(p + SRC_FLAGS) & 0xFF; }
+        public int getDstFlags() { return buf.get(p + DST_FLAGS) & 0xFF; }
+        public long getFirstNanos() { return buf.getLong(p + FIRST_NANOS); }
+        public long getLastNanos() { return buf.getLong(p + LAST_NANOS); }
+        public long getSrcBytes() { return buf.getLong(p + SRC_BYTES); }
+        public long getDstBytes() { return buf.getLong(p + DST_BYTES); }
+        public long getSrcPackets() { return buf.getLong(p + SRC_PACKETS); }
+        public long getDstPackets() { return buf.getLong(p + DST_PACKETS); }
+        
+        public IpAddress getSrc() { return address(SRC_HIGH, SRC_LOW); }
+        public IpAddress getDst() { return address(DST_HIGH, DST_LOW); }
+        
+        private IpAddress address(int high, int low) {
+            if (buf.get(p + FAMILY) == 6) {
+                return IpAddress.ofIPv6(buf.getLong(p + high), buf.getLong(p + low));
+            }
+            return IpAddress.ofIPv4((int) buf.getLong(p + low));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,307 @@
+package com.security.services.capture;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads packets from a classic pcap or a pcapng file in plain Java, so captures
+ * can be analyzed without libpcap or capture privileges.
+ *
+ * The file is streamed through one reused buffer and every packet is handed to
+ * the handler as a slice of it, valid only for the duration of the call. Both
+ * byte orders, microsecond and nanosecond pcap, and pcapng sections with several
+ * interfaces (each with its own link type and timestamp resolution) are handled.
+ * Enhanced, simple and obsolete packet blocks are read; other blocks are skipped.
+ */
+public class PcapFileReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    private static final int PCAP_MAGIC_MICROS = 0xA1B2C3D4;
+    private static final int PCAP_MAGIC_NANOS = 0xA1B23C4D;
+    private static final int PCAPNG_SECTION_HEADER = 0x0A0D0D0A;
+    private static final int PCAPNG_BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+    private static final int BLOCK_INTERFACE = 1;
+    private static final int BLOCK_OBSOLETE_PACKET = 2;
+    private static final int BLOCK_SIMPLE_PACKET = 3;
+    private static final int BLOCK_ENHANCED_PACKET = 6;
+    private static final int OPTION_TSRESOL = 9;
+    private static final int OPTION_TSOFFSET = 14;
+    
+    @FunctionalInterface
+    public interface PacketHandler {
+        // data[offset, offset + capturedLength) holds the packet; originalLength is its size on the wire
+        void packet(int linkType, long timestampNanos, byte[] data, int offset, int capturedLength, int originalLength);
+    }
+    
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long bytesRead;
+    private boolean truncated;
+    
+    public PcapFileReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.limit(0);
+    }
+    
+    // Reads the whole file; returns the number of packets delivered
+    public long readAll(PacketHandler handler) throws IOException {
+        if (!fill(4)) {
+            return 0;
+        }
+        int magic = buffer.order(ByteOrder.BIG_ENDIAN).getInt(buffer.position());
+        if (magic == PCAPNG_SECTION_HEADER) {
+            return readPcapng(handler);
+        }
+        return readPcap(handler);
+    }
+    
+    // File bytes consumed so far
+    public long getBytesRead() {
+        return bytesRead + buffer.position();
+    }
+    
+    // True when the file ended partway through a record
+    public boolean isTruncated() {
+        return truncated;
+    }
+    
+    public long getSize() throws IOException {
+        return channel.size();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private long readPcap(PacketHandler handler) throws IOException {
+        require(24);
+        int magic = buffer.getInt(buffer.position());
+        long unitsPerSecond;
+        if (magic == PCAP_MAGIC_MICROS || magic == PCAP_MAGIC_NANOS) {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+        } else if (Integer.reverseBytes(magic) == PCAP_MAGIC_MICROS || Integer.reverseBytes(magic) == PCAP_MAGIC_NANOS) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            magic = Integer.reverseBytes(magic);
+        } else {
+            throw new IOException(String.format("Not a pcap or pcapng file (magic %08x)", magic));
+        }
+        unitsPerSecond = magic == PCAP_MAGIC_NANOS ? 1_000_000_000L : 1_000_000L;
+        // Upper bits of the link type field carry FCS information
+        int linkType = buffer.getInt(buffer.position() + 20) & 0xFFFF;
+        skip(24);
+        
+        long packets = 0;
+        while (fill(16)) {
+            int p = buffer.position();
+            long seconds = buffer.getInt(p) & 0xFFFFFFFFL;
+            long fraction = buffer.getInt(p + 4) & 0xFFFFFFFFL;
+            int captured = buffer.getInt(p + 8);
+            int original = buffer.getInt(p + 12);
+            if (captured < 0 || captured > (1 << 28)) {
+                throw new IOException("Corrupt pcap record at offset " + (bytesRead + p) + ": length " + captured);
+            }
+            if (!fill(16 + captured)) {
+                break;
+            }
+            p = buffer.position();
+            long nanos = seconds * 1_000_000_000L + fraction * (1_000_000_000L / unitsPerSecond);
+            handler.packet(linkType, nanos, buffer.array(), p + 16, captured, original);
+            skip(16 + captured);
+            packets++;
+        }
+        return packets;
+    }
+    
+    private long readPcapng(PacketHandler handler) throws IOException {
+        List<Interface> interfaces = new ArrayList<>();
+        long lastTimestamp = 0;
+        long packets = 0;
+        
+        while (fill(12)) {
+            int p = buffer.position();
+            // The section header type reads the same in either byte order
+            int type = buffer.getInt(p);
+            if (type == PCAPNG_SECTION_HEADER) {
+                // Each section declares its own byte order
+                int orderMagic = buffer.getInt(p + 8);
+                if (Integer.reverseBytes(orderMagic) == PCAPNG_BYTE_ORDER_MAGIC) {
+                    buffer.order(buffer.order() == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+                } else if (orderMagic != PCAPNG_BYTE_ORDER_MAGIC) {
+                    throw new IOException("Corrupt pcapng section header at offset " + (bytesRead + p));
+                }
+                interfaces.clear();
+            }
+            int length = buffer.getInt(p + 4);
+            if (length < 12 || (length & 3) != 0 || length > (1 << 28)) {
+                throw new IOException("Corrupt pcapng block at offset " + (bytesRead + p) + ": length " + length);
+            }
+            if (!fill(length)) {
+                break;
+            }
+            p = buffer.position();
+            
+            switch (type) {
+                case BLOCK_INTERFACE:
+                    interfaces.add(readInterface(p, length));
+                    break;
+                case BLOCK_ENHANCED_PACKET: {
+                    Interface iface = iface(interfaces, buffer.getInt(p + 8));
+                    long timestamp = ((buffer.getInt(p + 12) & 0xFFFFFFFFL) << 32) | (buffer.getInt(p + 16) & 0xFFFFFFFFL);
+                    int captured = buffer.getInt(p + 20);
+                    int original = buffer.getInt(p + 24);
+                    checkBounds(captured, 28, length, p);
+                    lastTimestamp = iface.toNanos(timestamp);
+                    handler.packet(iface.linkType, lastTimestamp, buffer.array(), p + 28, captured, original);
+                    packets++;
+                    break;
+                }
+                case BLOCK_SIMPLE_PACKET: {
+                    // No timestamp; the packet inherits the previous one's
+                    Interface iface = iface(interfaces, 0);
+                    int original = buffer.getInt(p + 8);
+                    int captured = Math.min(original, length - 16);
+                    checkBounds(captured, 12, length, p);
+                    handler.packet(iface.linkType, lastTimestamp, buffer.array(), p + 12, captured, original);
+                    packets++;
+                    break;
+                }
+                case BLOCK_OBSOLETE_PACKET: {
+                    Interface iface = iface(interfaces, buffer.getShort(p + 8) & 0xFFFF);
+                    long timestamp = ((buffer.getInt(p + 12) & 0xFFFFFFFFL) << 32) | (buffer.getInt(p + 16) & 0xFFFFFFFFL);
+                    int captured = buffer.getInt(p + 20);
+                    int original = buffer.getInt(p + 24);
+                    checkBounds(captured, 28, length, p);
+                    lastTimestamp = iface.toNanos(timestamp);
+                    handler.packet(iface.linkType, lastTimestamp, buffer.array(), p + 28, captured, original);
+                    packets++;
+                    break;
+                }
+                default:
+                    // Section header, statistics, name resolution, custom blocks
+                    break;
+            }
+            skip(length);
+        }
+        return packets;
+    }
+    
+    private Interface readInterface(int p, int length) {
+        Interface iface = new Interface(buffer.getShort(p + 8) & 0xFFFF);
+        int option = p + 16;
+        int end = p + length - 4;
+        while (option + 4 <= end) {
+            int code = buffer.getShort(option) & 0xFFFF;
+            int size = buffer.getShort(option + 2) & 0xFFFF;
+            if (code == 0 || option + 4 + size > end) {
+                break;
+            }
+            if (code == OPTION_TSRESOL && size >= 1) {
+                iface.resolution = buffer.get(option + 4);
+            } else if (code == OPTION_TSOFFSET && size >= 8) {
+                iface.offsetSeconds = buffer.getLong(option + 4);
+            }
+            option += 4 + ((size + 3) & ~3);
+        }
+        return iface;
+    }
+    
+    private static Interface iface(List<Interface> interfaces, int id) throws IOException {
+        if (id < 0 || id >= interfaces.size()) {
+            throw new IOException("Packet refers to undeclared interface " + id);
+        }
+        return interfaces.get(id);
+    }
+    
+    private void checkBounds(int captured, int header, int length, int p) throws IOException {
+        if (captured < 0 || header + captured > length - 4) {
+            throw new IOException("Corrupt packet block at offset " + (bytesRead + p) + ": length " + captured);
+        }
+    }
+    
+    // Ensures n bytes are buffered at the current position; false at end of file
+    private boolean fill(int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return true;
+        }
+        if (buffer.capacity() < n) {
+            // The unread bytes move to the start of the new buffer; count what was consumed
+            bytesRead += buffer.position();
+            ByteBuffer larger = ByteBuffer.allocate(Integer.highestOneBit(n - 1) << 1).order(buffer.order());
+            larger.put(buffer);
+            larger.flip();
+            buffer = larger;
+        }
+        ByteOrder order = buffer.order();
+        bytesRead += buffer.position();
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        buffer.order(order);
+        if (buffer.remaining() >= n) {
+            return true;
+        }
+        // A capture cut off mid-record (tcpdump killed, disk full) ends at the last whole packet
+        truncated = buffer.remaining() > 0;
+        return false;
+    }
+    
+    private void require(int n) throws IOException {
+        if (!fill(n)) {
+            throw new EOFException("Capture truncated");
+        }
+    }
+    
+    private void skip(int n) {
+        buffer.position(buffer.position() + n);
+    }
+    
+    // if_tsresol: high bit clear is 10^-n seconds, set is 2^-n
+    private static final class Interface {
+        final int linkType;
+        byte resolution = 6;
+        long offsetSeconds;
+        
+        Interface(int linkType) {
+            this.linkType = linkType;
+        }
+        
+        long toNanos(long timestamp) {
+            long nanos;
+            if ((resolution & 0x80) == 0) {
+                int exponent = resolution;
+                if (exponent <= 9) {
+                    long scale = 1;
+                    for (int i = exponent; i < 9; i++) {
+                        scale *= 10;
+                    }
+                    nanos = timestamp * scale;
+                } else {
+                    long scale = 1;
+                    for (int i = 9; i < exponent; i++) {
+                        scale *= 10;
+                    }
+                    nanos = timestamp / scale;
+                }
+            } else {
+                int shift = Math.min(resolution & 0x7F, 63);
+                long seconds = timestamp >>> shift;
+                long fraction = timestamp & ((1L << shift) - 1);
+                nanos = seconds * 1_000_000_000L + (long) (fraction * 1e9 / (1L << shift));
+            }
+            return nanos + offsetSeconds * 1_000_000_000L;
+        }
+    }
+}
\ No newline at end of file
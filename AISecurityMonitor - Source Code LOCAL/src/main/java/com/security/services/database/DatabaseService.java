@@ -2,20 +2,27 @@ package com.security.services.database;
 
 import com.security.models.ConnectionData;
 import com.security.models.DeviceInfo;
+import com.security.services.jfr.DatabaseWriteEvent;
 import java.sql.*;
 import java.util.*;
 
 public class DatabaseService {
+    // Single shared connection; public methods are synchronized because
+    // connections are analyzed and logged from several worker threads
     private Connection dbConnection;  // Changed variable name to avoid conflict
     
     public DatabaseService() {
-        initializeDatabase();
+        this("security_monitor.db");
     }
     
-    private void initializeDatabase() {
+    public DatabaseService(String path) {
+        initializeDatabase(path);
+    }
+    
+    private void initializeDatabase(String path) {
         try {
             Class.forName("org.sqlite.JDBC");
-            dbConnection = DriverManager.getConnection("jdbc:sqlite:security_monitor.db");
+            dbConnection = DriverManager.getConnection("jdbc:sqlite:" + path);
             createTables();
             System.out.println("Database initialized successfully");
         } catch (Exception e) {
@@ -100,9 +107,11 @@ public class DatabaseService {
         }
     }
     
-    public void logConnection(ConnectionData connection) {
+    public synchronized void logConnection(ConnectionData connection) {
         String sql = "INSERT INTO connections (protocol, local_ip, local_port, remote_ip, remote_port, state, threat_score, status) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        DatabaseWriteEvent event = beginWrite();
+        boolean success = false;
         
         try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
             pstmt.setString(1, connection.getProtocol());
@@ -115,15 +124,60 @@ public class DatabaseService {
             pstmt.setString(8, connection.getStatus());
             
             pstmt.executeUpdate();
+            success = true;
         } catch (SQLException e) {
             System.err.println("Failed to log connection: " + e.getMessage());
+        } finally {
+            commitWrite(event, "connections", 1, success);
+        }
+    }
+    
+    // Writes a batch of connections in a single transaction
+    public synchronized void logConnections(List<ConnectionData> connections) {
+        if (connections.isEmpty() || dbConnection == null) {
+            return;
+        }
+        String sql = "INSERT INTO connections (protocol, local_ip, local_port, remote_ip, remote_port, state, threat_score, status) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        DatabaseWriteEvent event = beginWrite();
+        boolean success = false;
+        
+        try {
+            dbConnection.setAutoCommit(false);
+            try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
+                for (ConnectionData connection : connections) {
+                    pstmt.setString(1, connection.getProtocol());
+                    pstmt.setString(2, connection.getLocalIP());
+                    pstmt.setInt(3, connection.getLocalPort());
+                    pstmt.setString(4, connection.getRemoteIP());
+                    pstmt.setInt(5, connection.getRemotePort());
+                    pstmt.setString(6, connection.getState());
+                    pstmt.setDouble(7, connection.getThreatScore());
+                    pstmt.setString(8, connection.getStatus());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                dbConnection.commit();
+                success = true;
+            } catch (SQLException e) {
+                dbConnection.rollback();
+                throw e;
+            } finally {
+                dbConnection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to log " + connections.size() + " connections: " + e.getMessage());
+        } finally {
+            commitWrite(event, "connections", connections.size(), success);
         }
     }
     
-    public void logThreat(String threatType, String sourceIp, String targetIp, 
+    public synchronized void logThreat(String threatType, String sourceIp, String targetIp, 
                          String description, int severity, String action) {
         String sql = "INSERT INTO threats (threat_type, source_ip, target_ip, description, severity, action_taken) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
+        DatabaseWriteEvent event = beginWrite();
+        boolean success = false;
         
         try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
             pstmt.setString(1, threatType);
@@ -134,14 +188,19 @@ public class DatabaseService {
             pstmt.setString(6, action);
             
             pstmt.executeUpdate();
+            success = true;
         } catch (SQLException e) {
             System.err.println("Failed to log threat: " + e.getMessage());
+        } finally {
+            commitWrite(event, "threats", 1, success);
         }
     }
     
-    public void logFirewallAction(String ip, String action, String reason, boolean success) {
+    public synchronized void logFirewallAction(String ip, String action, String reason, boolean success) {
         String sql = "INSERT INTO firewall_logs (ip_address, action, reason, success) " +
                      "VALUES (?, ?, ?, ?)";
+        DatabaseWriteEvent event = beginWrite();
+        boolean written = false;
         
         try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
             pstmt.setString(1, ip);
@@ -150,12 +209,15 @@ public class DatabaseService {
             pstmt.setBoolean(4, success);
             
             pstmt.executeUpdate();
+            written = true;
         } catch (SQLException e) {
             System.err.println("Failed to log firewall action: " + e.getMessage());
+        } finally {
+            commitWrite(event, "firewall_logs", 1, written);
         }
     }
     
-    public List<Map<String, Object>> getRecentThreats(int limit) {
+    public synchronized List<Map<String, Object>> getRecentThreats(int limit) {
         List<Map<String, Object>> threats = new ArrayList<>();
         String sql = "SELECT * FROM threats WHERE resolved = 0 ORDER BY timestamp DESC LIMIT ?";
         
@@ -182,7 +244,7 @@ public class DatabaseService {
         return threats;
     }
     
-    public Map<String, Integer> getThreatStatistics() {
+    public synchronized Map<String, Integer> getThreatStatistics() {
         Map<String, Integer> stats = new HashMap<>();
         String[] queries = {
             "SELECT COUNT(*) as total FROM threats",
@@ -207,7 +269,23 @@ public class DatabaseService {
         return stats;
     }
     
-    public void close() {
+    private DatabaseWriteEvent beginWrite() {
+        DatabaseWriteEvent event = new DatabaseWriteEvent();
+        event.begin();
+        return event;
+    }
+    
+    private void commitWrite(DatabaseWriteEvent event, String table, int rows, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.rows = rows;
+            event.success = success;
+            event.commit();
+        }
+    }
+    
+    public synchronized void close() {
         try {
             if (dbConnection != null && !dbConnection.isClosed()) {
                 dbConnection.close();
@@ -0,0 +1,111 @@
+package com.security.services.discovery;
+
+import com.security.models.DeviceInfo;
+import com.security.models.IpAddress;
+import com.security.services.ConfigService;
+import com.security.services.scanner.AdvancedPortScanner;
+import com.security.services.scanner.PortScanEngine;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Sweeps an IPv4 CIDR range (at most a /16) for live hosts with non-blocking
+ * TCP connects to a handful of common ports, run on a PortScanEngine from the
+ * calling thread.
+ *
+ * A host counts as alive when any probe completes the handshake or is actively
+ * refused (the RST proves something answered). Every probe port is a liveness
+ * port, so nothing else is probed. Hosts are started in address order up to the
+ * engine's in-flight cap, which it lowers when file descriptors run out. A host
+ * is reported once all of its probes have resolved, so a /24 finishes in about
+ * one timeout period when the cap covers it.
+ */
+public class SubnetDiscovery {
+    public static final int MIN_PREFIX_LENGTH = 16;
+    
+    private final int[] ports;
+    private final PortScanEngine engine;
+    
+    // Probe ports, timeout and in-flight window from discovery.* settings
+    public static SubnetDiscovery fromConfig(ConfigService config) {
+        return new SubnetDiscovery(
+            parsePorts(config.getString("discovery.ports", "80,443,22,445")),
+            config.getInt("discovery.timeout.ms", 1000),
+            config.getInt("discovery.max.inflight", 256));
+    }
+    
+    public SubnetDiscovery(int[] ports, int timeoutMillis, int maxInFlight) {
+        if (ports.length == 0) {
+            throw new IllegalArgumentException("At least one probe port required");
+        }
+        this.ports = ports.clone();
+        this.engine = new PortScanEngine(timeoutMillis, Math.max(ports.length, maxInFlight), port -> null);
+    }
+    
+    // Probes every host address in network/prefixLength that skip rejects (null probes all); returns the number found
+    public int sweep(IpAddress network, int prefixLength, Predicate<IpAddress> skip, Consumer<DeviceInfo> listener)
+            throws IOException {
+        if (network.isIPv6()) {
+            throw new IllegalArgumentException("IPv6 ranges are not swept: " + network);
+        }
+        if (prefixLength < MIN_PREFIX_LENGTH || prefixLength > 32) {
+            throw new IllegalArgumentException("Prefix must be /" + MIN_PREFIX_LENGTH + " to /32: /" + prefixLength);
+        }
+        
+        int mask = -1 << (32 - prefixLength);
+        int base = toInt(network) & mask;
+        int size = 1 << (32 - prefixLength);
+        // Network and broadcast addresses are skipped except on /31 and /32
+        int first = size > 2 ? 1 : 0;
+        int last = size > 2 ? size - 2 : size - 1;
+        
+        List<String> hosts = new ArrayList<>(last - first + 1);
+        for (int i = first; i <= last; i++) {
+            IpAddress address = IpAddress.ofIPv4(base + i);
+            if (skip == null || !skip.test(address)) {
+                hosts.add(address.toString());
+            }
+        }
+        
+        int[] found = new int[1];
+        engine.scan(hosts, ports, ports.length, (ip, alive, open) -> {
+            if (alive) {
+                found[0]++;
+                listener.accept(toDevice(ip, open));
+            }
+        });
+        return found[0];
+    }
+    
+    private static DeviceInfo toDevice(String ip, List<AdvancedPortScanner.PortScanResult> open) {
+        DeviceInfo device = new DeviceInfo();
+        device.setAddress(IpAddress.of(ip));
+        device.setStatus("Online");
+        for (AdvancedPortScanner.PortScanResult result : open) {
+            device.addOpenPort(result.getPort());
+        }
+        return device;
+    }
+    
+    // "80,443,22" -> {80, 443, 22}
+    public static int[] parsePorts(String spec) {
+        String[] parts = spec.split(",");
+        int[] result = new int[parts.length];
+        int count = 0;
+        for (String part : parts) {
+            if (!part.isBlank()) {
+                result[count++] = Integer.parseInt(part.trim());
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    private static int toInt(IpAddress address) {
+        byte[] bytes = address.toBytes();
+        return ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.security.services.dns;
+
+import com.security.models.IpAddress;
+import com.security.services.metrics.StageMetrics;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous PTR lookups on a small bounded pool, so callers never block on DNS.
+ *
+ * Answers are cached with a TTL; failed lookups (no PTR record, timeout) are
+ * cached too, for a shorter time, so an address without a name is not asked
+ * again every cycle. Concurrent requests for the same address share one
+ * in-flight lookup. When the queue is full the request is dropped without
+ * caching and simply retried the next time the address is seen.
+ */
+public class ReverseDnsResolver {
+    private static final CompletableFuture<String> UNRESOLVED = CompletableFuture.completedFuture(null);
+    
+    private final long positiveTtlMillis;
+    private final long negativeTtlMillis;
+    private final int maxEntries;
+    private final ThreadPoolExecutor executor;
+    private final StageMetrics metrics;
+    
+    private final ConcurrentHashMap<IpAddress, Entry> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<IpAddress, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    
+    public ReverseDnsResolver(int threads, int queueCapacity, long positiveTtlMillis, long negativeTtlMillis,
+                              int maxEntries, StageMetrics metrics) {
+        this.positiveTtlMillis = positiveTtlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.metrics = metrics;
+        
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                Thread t = new Thread(r, "reverse-dns-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+        if (metrics != null) {
+            metrics.setQueueDepthGauge(() -> executor.getQueue().size());
+        }
+    }
+    
+    // Cached name, or null when unknown, known to have none, or expired; never blocks
+    public String getCached(IpAddress ip) {
+        Entry entry = cache.get(ip);
+        return entry != null && entry.expiresAt > System.currentTimeMillis() ? entry.hostname : null;
+    }
+    
+    // Calls back with the name once known; immediately on a cache hit, never for addresses without one
+    public void lookup(IpAddress ip, Consumer<String> onResolved) {
+        resolve(ip).thenAccept(hostname -> {
+            if (hostname != null) {
+                onResolved.accept(hostname);
+            }
+        });
+    }
+    
+    public CompletableFuture<String> resolve(IpAddress ip) {
+        if (ip == null || ip.isUnspecified()) {
+            return UNRESOLVED;
+        }
+        
+        Entry entry = cache.get(ip);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return CompletableFuture.completedFuture(entry.hostname);
+        }
+        misses.increment();
+        
+        CompletableFuture<String> pending = inFlight.get(ip);
+        if (pending != null) {
+            coalesced.increment();
+            return pending;
+        }
+        CompletableFuture<String> created = new CompletableFuture<>();
+        pending = inFlight.putIfAbsent(ip, created);
+        if (pending != null) {
+            coalesced.increment();
+            return pending;
+        }
+        
+        try {
+            executor.execute(() -> complete(ip, created));
+        } catch (RejectedExecutionException e) {
+            // Queue full or shut down; not cached, so the next sighting tries again
+            inFlight.remove(ip, created);
+            created.complete(null);
+        }
+        return created;
+    }
+    
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public int getCacheSize() { return cache.size(); }
+    public int getInFlight() { return inFlight.size(); }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getCoalesced() { return coalesced.sum(); }
+    
+    private void complete(IpAddress ip, CompletableFuture<String> future) {
+        long start = System.nanoTime();
+        String hostname = null;
+        try {
+            String text = ip.toString();
+            String name = ip.toInetAddress().getCanonicalHostName();
+            // The JDK hands back the literal when there is no PTR record
+            if (name != null && !name.equals(text) && !name.equals(ip.toInetAddress().getHostAddress())) {
+                hostname = name;
+            }
+        } catch (RuntimeException e) {
+            if (metrics != null) {
+                metrics.recordError();
+            }
+        }
+        if (metrics != null) {
+            metrics.record(System.nanoTime() - start);
+        }
+        
+        store(ip, hostname);
+        inFlight.remove(ip, future);
+        future.complete(hostname);
+    }
+    
+    private void store(IpAddress ip, String hostname) {
+        long now = System.currentTimeMillis();
+        if (cache.size() >= maxEntries) {
+            Iterator<Map.Entry<IpAddress, Entry>> it = cache.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getValue().expiresAt <= now) {
+                    it.remove();
+                }
+            }
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        cache.put(ip, new Entry(hostname, now + (hostname != null ? positiveTtlMillis : negativeTtlMillis)));
+    }
+    
+    private static final class Entry {
+        // null marks a negative entry
+        final String hostname;
+        final long expiresAt;
+        
+        Entry(String hostname, long expiresAt) {
+            this.hostname = hostname;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.security.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.security.ConnectionAnalysis")
+@Label("Connection Analysis")
+@Category("AI Security Monitor")
+@StackTrace(false)
+public class ConnectionAnalysisEvent extends jdk.jfr.Event {
+    @Label("Remote IP")
+    public String remoteIP;
+    
+    @Label("Remote Port")
+    public int remotePort;
+    
+    @Label("State")
+    public String state;
+    
+    @Label("Score")
+    public double score;
+    
+    @Label("Status")
+    public String status;
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.security.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.security.DatabaseWrite")
+@Label("Database Write")
+@Category("AI Security Monitor")
+public class DatabaseWriteEvent extends jdk.jfr.Event {
+    @Label("Table")
+    public String table;
+    
+    @Label("Rows")
+    public int rows;
+    
+    @Label("Success")
+    public boolean success;
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.security.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.security.MLInference")
+@Label("ML Inference")
+@Category("AI Security Monitor")
+@StackTrace(false)
+public class MLInferenceEvent extends jdk.jfr.Event {
+    @Label("Batch Size")
+    public int batchSize;
+    
+    @Label("Score")
+    @Description("Threat score, averaged over the batch")
+    public double score;
+}
\ No newline at end of file
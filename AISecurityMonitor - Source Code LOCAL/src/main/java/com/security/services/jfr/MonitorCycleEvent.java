@@ -0,0 +1,33 @@
+package com.security.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.security.MonitorCycle")
+@Label("Monitor Cycle")
+@Description("One connection monitoring cycle: scan, tracking and scoring")
+@Category("AI Security Monitor")
+@StackTrace(false)
+public class MonitorCycleEvent extends jdk.jfr.Event {
+    @Label("Replay")
+    @Description("Snapshot came from a replay file rather than a live scan")
+    public boolean replay;
+    
+    @Label("Connections")
+    public int connections;
+    
+    @Label("Scored")
+    public int scored;
+    
+    @Label("Closed")
+    public int closed;
+    
+    @Label("Suspicious")
+    public int suspicious;
+    
+    @Label("Malicious")
+    public int malicious;
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.security.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.security.PortProbe")
+@Label("Port Probe")
+@Category("AI Security Monitor")
+@StackTrace(false)
+public class PortProbeEvent extends jdk.jfr.Event {
+    @Label("Host")
+    public String host;
+    
+    @Label("Port")
+    public int port;
+    
+    @Label("Protocol")
+    public String protocol;
+    
+    @Label("Open")
+    public boolean open;
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.security.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.security.PortScanHost")
+@Label("Port Scan Host")
+@Category("AI Security Monitor")
+@StackTrace(false)
+public class PortScanHostEvent extends jdk.jfr.Event {
+    @Label("Host")
+    public String host;
+    
+    @Label("Alive")
+    public boolean alive;
+    
+    @Label("Ports Probed")
+    public int portsProbed;
+    
+    @Label("Open Ports")
+    public int openPorts;
+}
\ No newline at end of file
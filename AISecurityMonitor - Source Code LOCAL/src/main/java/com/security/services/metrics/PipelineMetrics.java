@@ -0,0 +1,75 @@
+package com.security.services.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The monitor's pipeline stages, each registered as an MBean under
+ * com.security:type=Stage,name=<stage> so jconsole can read them live.
+ */
+public class PipelineMetrics {
+    private static final String DOMAIN = "com.security";
+    
+    private final StageMetrics connectionScan = new StageMetrics("connectionScan");
+    private final StageMetrics deviceScan = new StageMetrics("deviceScan");
+    private final StageMetrics neighborScan = new StageMetrics("neighborScan");
+    private final StageMetrics ruleScoring = new StageMetrics("ruleScoring");
+    private final StageMetrics mlInference = new StageMetrics("mlInference");
+    private final StageMetrics databaseWrite = new StageMetrics("databaseWrite");
+    private final StageMetrics firewallAction = new StageMetrics("firewallAction");
+    private final StageMetrics uiRefresh = new StageMetrics("uiRefresh");
+    private final StageMetrics reverseDns = new StageMetrics("reverseDns");
+    private final StageMetrics flowAssembly = new StageMetrics("flowAssembly");
+    
+    private final List<ObjectName> registered = new ArrayList<>();
+    
+    public synchronized void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (StageMetrics stage : getStages()) {
+            try {
+                ObjectName objectName = new ObjectName(DOMAIN + ":type=Stage,name=" + stage.getName());
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(stage, objectName);
+                    registered.add(objectName);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to register metrics for " + stage.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    public synchronized void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registered) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (Exception e) {
+                // Already gone
+            }
+        }
+        registered.clear();
+    }
+    
+    public List<StageMetrics> getStages() {
+        List<StageMetrics> stages = new ArrayList<>();
+        Collections.addAll(stages, connectionScan, deviceScan, neighborScan, ruleScoring, mlInference,
+                           databaseWrite, firewallAction, uiRefresh, reverseDns, flowAssembly);
+        return stages;
+    }
+    
+    public StageMetrics getConnectionScan() { return connectionScan; }
+    public StageMetrics getDeviceScan() { return deviceScan; }
+    public StageMetrics getNeighborScan() { return neighborScan; }
+    public StageMetrics getRuleScoring() { return ruleScoring; }
+    public StageMetrics getMlInference() { return mlInference; }
+    public StageMetrics getDatabaseWrite() { return databaseWrite; }
+    public StageMetrics getFirewallAction() { return firewallAction; }
+    public StageMetrics getUiRefresh() { return uiRefresh; }
+    public StageMetrics getReverseDns() { return reverseDns; }
+    // Items are packets, so items/s is capture read throughput
+    public StageMetrics getFlowAssembly() { return flowAssembly; }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.security.services.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histogram, counters and queue depth for one pipeline stage.
+ *
+ * Writers call record() from any thread; the HdrHistogram Recorder and the
+ * LongAdders do not allocate there. Readers (JMX, replay summaries) fold the
+ * recorder's interval histogram into a cumulative one under a lock, so reads
+ * never block or lose writes.
+ */
+public class StageMetrics implements StageMetricsMBean {
+    // Anything slower than an hour is recorded as an hour
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private volatile LongSupplier queueDepth = () -> 0;
+    
+    // Guarded by this
+    private final Histogram cumulative = new Histogram(MAX_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private Histogram interval;
+    
+    public StageMetrics(String name) {
+        this.name = name;
+    }
+    
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+    
+    public void record(long nanos, long itemCount) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+        recorder.recordValue(value);
+        count.increment();
+        items.add(itemCount);
+        totalNanos.add(value);
+    }
+    
+    public void recordError() {
+        errors.increment();
+    }
+    
+    // Sampled on read, e.g. the pending events of the stage's subscriber
+    public void setQueueDepthGauge(LongSupplier gauge) {
+        this.queueDepth = gauge;
+    }
+    
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+    
+    // Items per second of time spent inside the stage
+    public double getItemsPerSecond() {
+        long nanos = totalNanos.sum();
+        return nanos > 0 ? items.sum() / (nanos / 1e9) : 0.0;
+    }
+    
+    @Override
+    public String getName() { return name; }
+    
+    @Override
+    public long getCount() { return count.sum(); }
+    
+    @Override
+    public long getItems() { return items.sum(); }
+    
+    @Override
+    public long getErrors() { return errors.sum(); }
+    
+    @Override
+    public long getQueueDepth() { return queueDepth.getAsLong(); }
+    
+    @Override
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n > 0 ? totalNanos.sum() / 1e3 / n : 0.0;
+    }
+    
+    @Override
+    public double getP50Micros() { return percentileMicros(50.0); }
+    
+    @Override
+    public double getP99Micros() { return percentileMicros(99.0); }
+    
+    @Override
+    public double getP999Micros() { return percentileMicros(99.9); }
+    
+    @Override
+    public synchronized double getMaxMicros() {
+        return roll().getMaxValue() / 1e3;
+    }
+    
+    @Override
+    public synchronized void reset() {
+        roll();
+        cumulative.reset();
+        count.reset();
+        items.reset();
+        errors.reset();
+        totalNanos.reset();
+    }
+    
+    private synchronized double percentileMicros(double percentile) {
+        return roll().getValueAtPercentile(percentile) / 1e3;
+    }
+    
+    private Histogram roll() {
+        interval = recorder.getIntervalHistogram(interval);
+        cumulative.add(interval);
+        return cumulative;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s count=%d items=%d errors=%d p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus queue=%d",
+            name, getCount(), getItems(), getErrors(), getP50Micros(), getP99Micros(), getP999Micros(),
+            getMaxMicros(), getQueueDepth());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.security.services.metrics;
+
+// JMX view of one pipeline stage; latencies are in microseconds since start or the last reset
+public interface StageMetricsMBean {
+    String getName();
+    
+    long getCount();
+    long getItems();
+    long getErrors();
+    long getQueueDepth();
+    
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+    
+    void reset();
+}
\ No newline at end of file
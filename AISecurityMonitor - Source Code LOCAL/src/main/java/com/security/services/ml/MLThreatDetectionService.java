@@ -1,19 +1,23 @@
 package com.security.services.ml;
 
 import com.security.models.ConnectionData;
+import com.security.services.jfr.MLInferenceEvent;
 import weka.classifiers.Classifier;
 import weka.classifiers.trees.RandomForest;
 import weka.core.Attribute;
+import weka.core.BatchPredictor;
 import weka.core.DenseInstance;
 import weka.core.Instances;
 import weka.core.SerializationHelper;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MLThreatDetectionService {
     private Classifier classifier;
     private Instances dataset;
     private boolean modelTrained = false;
+    private final List<Runnable> modelChangeListeners = new CopyOnWriteArrayList<>();
     
     public MLThreatDetectionService() {
         initializeAttributes();
@@ -51,6 +55,8 @@ public class MLThreatDetectionService {
             return basicAnalysis(connection);
         }
         
+        MLInferenceEvent event = new MLInferenceEvent();
+        event.begin();
         try {
             double[] instanceValues = extractFeatures(connection, additionalFeatures);
             DenseInstance instance = new DenseInstance(1.0, instanceValues);
@@ -59,6 +65,7 @@ public class MLThreatDetectionService {
             double[] distribution = classifier.distributionForInstance(instance);
             double threatProbability = distribution[1]; // Probability of being threat
             
+            commitInference(event, 1, threatProbability * 100);
             return threatProbability * 100;
         } catch (Exception e) {
             e.printStackTrace();
@@ -66,6 +73,58 @@ public class MLThreatDetectionService {
         }
     }
     
+    // Scores several connections with one classifier call where the model supports it
+    public double[] analyzeWithML(List<ConnectionData> connections, List<Map<String, Object>> additionalFeatures) {
+        double[] scores = new double[connections.size()];
+        if (!modelTrained) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = basicAnalysis(connections.get(i));
+            }
+            return scores;
+        }
+        
+        MLInferenceEvent event = new MLInferenceEvent();
+        event.begin();
+        try {
+            Instances batch = new Instances(dataset, connections.size());
+            for (int i = 0; i < scores.length; i++) {
+                batch.add(new DenseInstance(1.0, extractFeatures(connections.get(i), additionalFeatures.get(i))));
+            }
+            
+            double[][] distributions;
+            if (classifier instanceof BatchPredictor) {
+                distributions = ((BatchPredictor) classifier).distributionsForInstances(batch);
+            } else {
+                distributions = new double[scores.length][];
+                for (int i = 0; i < scores.length; i++) {
+                    distributions[i] = classifier.distributionForInstance(batch.instance(i));
+                }
+            }
+            
+            double total = 0;
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = distributions[i][1] * 100;
+                total += scores[i];
+            }
+            commitInference(event, scores.length, scores.length > 0 ? total / scores.length : 0.0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = basicAnalysis(connections.get(i));
+            }
+        }
+        return scores;
+    }
+    
+    private void commitInference(MLInferenceEvent event, int batchSize, double score) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.batchSize = batchSize;
+            event.score = score;
+            event.commit();
+        }
+    }
+    
     private double[] extractFeatures(ConnectionData connection, Map<String, Object> features) {
         return new double[] {
             connection.getProtocol().equals("TCP") ? 0 : 1,
@@ -112,11 +171,13 @@ public class MLThreatDetectionService {
     }
     
     private void trainModel() throws Exception {
-        classifier = new RandomForest();
+        RandomForest forest = new RandomForest();
         
-        // Set options using string array
-        String[] options = {"-I", "100", "-depth", "20"};
-        ((RandomForest) classifier).setOptions(options);
+        // Same as options "-I 100 -depth 20"; the setters avoid setOptions()'s
+        // class discovery, which pulls java.beans/AWT into headless runs
+        forest.setNumIterations(100);
+        forest.setMaxDepth(20);
+        classifier = forest;
         
         // Generate synthetic training data
         generateTrainingData();
@@ -170,11 +231,23 @@ public class MLThreatDetectionService {
         }
     }
     
+    // Notified whenever the classifier is retrained
+    public void addModelChangeListener(Runnable listener) {
+        modelChangeListeners.add(listener);
+    }
+    
+    private void fireModelChanged() {
+        for (Runnable listener : modelChangeListeners) {
+            listener.run();
+        }
+    }
+    
     private void retrainModel() {
         try {
             classifier.buildClassifier(dataset);
             SerializationHelper.write("threat_model.model", classifier);
             System.out.println("ML Model retrained with " + dataset.size() + " instances");
+            fireModelChanged();
         } catch (Exception e) {
             e.printStackTrace();
         }
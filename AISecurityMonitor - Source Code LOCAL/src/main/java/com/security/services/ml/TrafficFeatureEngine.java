@@ -0,0 +1,174 @@
+package com.security.services.ml;
+
+import com.security.models.ConnectionData;
+import com.security.models.IpAddress;
+import java.util.*;
+
+/**
+ * Streaming version of the KDD'99 traffic features. Every connection is
+ * recorded once and the features are read straight from running counters:
+ *
+ *   time-based (last 2 seconds)   srv_count, same_srv_rate, diff_srv_rate
+ *   host-based (last 100 conns)   dst_host_srv_count, dst_host_same_srv_rate,
+ *                                 dst_host_diff_srv_rate
+ *
+ * Each tracked host, service and host/service pair costs one fixed-size
+ * bucket array; history is never rescanned.
+ */
+public class TrafficFeatureEngine {
+    private static final long TIME_WINDOW_MILLIS = 2000;
+    private static final int BUCKETS = 8;
+    private static final long BUCKET_MILLIS = TIME_WINDOW_MILLIS / BUCKETS;
+    private static final int HOST_WINDOW = 100;
+    // How many records between sweeps of idle time-window counters
+    private static final int SWEEP_INTERVAL = 1024;
+    
+    // Time window
+    private final Map<IpAddress, BucketCounter> hostCounters = new HashMap<>();
+    private final Map<Integer, BucketCounter> serviceCounters = new HashMap<>();
+    private final Map<HostService, BucketCounter> hostServiceCounters = new HashMap<>();
+    
+    // Connection-count window
+    private final HostService[] lastConnections = new HostService[HOST_WINDOW];
+    private int lastIndex = 0;
+    private final Map<IpAddress, int[]> hostWindowCounts = new HashMap<>();
+    private final Map<Integer, int[]> serviceWindowCounts = new HashMap<>();
+    private final Map<HostService, int[]> hostServiceWindowCounts = new HashMap<>();
+    
+    private int recordsSinceSweep = 0;
+    
+    // Records the connection at the given time and writes its traffic features into the map
+    public synchronized void recordAndExtract(ConnectionData connection, long timeMillis,
+                                              Map<String, Object> features) {
+        IpAddress host = connection.getRemoteAddress();
+        int service = connection.getRemotePort();
+        HostService pair = new HostService(host, service);
+        long bucket = timeMillis / BUCKET_MILLIS;
+        
+        // 1. Time-based features over the last 2 seconds
+        int hostCount = hostCounters.computeIfAbsent(host, k -> new BucketCounter()).addAndSum(bucket);
+        int srvCount = serviceCounters.computeIfAbsent(service, k -> new BucketCounter()).addAndSum(bucket);
+        int sameSrv = hostServiceCounters.computeIfAbsent(pair, k -> new BucketCounter()).addAndSum(bucket);
+        
+        features.put("srv_count", (double) srvCount);
+        features.put("same_srv_rate", rate(sameSrv, hostCount));
+        features.put("diff_srv_rate", rate(hostCount - sameSrv, hostCount));
+        
+        // 2. Host-based features over the last 100 connections
+        HostService evicted = lastConnections[lastIndex];
+        if (evicted != null) {
+            decrement(hostWindowCounts, evicted.host);
+            decrement(serviceWindowCounts, evicted.service);
+            decrement(hostServiceWindowCounts, evicted);
+        }
+        lastConnections[lastIndex] = pair;
+        lastIndex = (lastIndex + 1) % HOST_WINDOW;
+        
+        int dstHostCount = increment(hostWindowCounts, host);
+        int dstHostSrvCount = increment(serviceWindowCounts, service);
+        int dstHostSameSrv = increment(hostServiceWindowCounts, pair);
+        
+        features.put("dst_host_srv_count", (double) dstHostSrvCount);
+        features.put("dst_host_same_srv_rate", rate(dstHostSameSrv, dstHostCount));
+        features.put("dst_host_diff_srv_rate", rate(dstHostCount - dstHostSameSrv, dstHostCount));
+        
+        if (++recordsSinceSweep >= SWEEP_INTERVAL) {
+            recordsSinceSweep = 0;
+            sweep(bucket);
+        }
+    }
+    
+    public synchronized int getTrackedHosts() {
+        return hostCounters.size();
+    }
+    
+    // Clamped because late, out-of-window records can skew one counter against another
+    private static double rate(int part, int whole) {
+        if (whole <= 0 || part <= 0) {
+            return 0.0;
+        }
+        return Math.min(1.0, (double) part / whole);
+    }
+    
+    private static <K> int increment(Map<K, int[]> counts, K key) {
+        int[] count = counts.computeIfAbsent(key, k -> new int[1]);
+        return ++count[0];
+    }
+    
+    private static <K> void decrement(Map<K, int[]> counts, K key) {
+        int[] count = counts.get(key);
+        if (count != null && --count[0] <= 0) {
+            counts.remove(key);
+        }
+    }
+    
+    // Drops time-window counters that have not been touched for a full window
+    private void sweep(long currentBucket) {
+        hostCounters.values().removeIf(c -> c.isIdle(currentBucket));
+        serviceCounters.values().removeIf(c -> c.isIdle(currentBucket));
+        hostServiceCounters.values().removeIf(c -> c.isIdle(currentBucket));
+    }
+    
+    // Fixed ring of time buckets covering the last TIME_WINDOW_MILLIS
+    private static class BucketCounter {
+        private final int[] counts = new int[BUCKETS];
+        private final long[] bucketIds = new long[BUCKETS];
+        private long newestBucket = Long.MIN_VALUE;
+        
+        BucketCounter() {
+            Arrays.fill(bucketIds, Long.MIN_VALUE);
+        }
+        
+        int addAndSum(long bucket) {
+            int slot = (int) Math.floorMod(bucket, (long) BUCKETS);
+            if (bucketIds[slot] != bucket) {
+                if (bucketIds[slot] > bucket) {
+                    // Older than the window this slot now covers; count it in the sum only
+                    return sum(Math.max(bucket, newestBucket)) + 1;
+                }
+                bucketIds[slot] = bucket;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+            newestBucket = Math.max(newestBucket, bucket);
+            return sum(Math.max(bucket, newestBucket));
+        }
+        
+        private int sum(long current) {
+            int total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (bucketIds[i] > current - BUCKETS && bucketIds[i] <= current) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+        
+        boolean isIdle(long currentBucket) {
+            return newestBucket <= currentBucket - BUCKETS;
+        }
+    }
+    
+    private static final class HostService {
+        final IpAddress host;
+        final int service;
+        
+        HostService(IpAddress host, int service) {
+            this.host = host;
+            this.service = service;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof HostService)) return false;
+            HostService other = (HostService) o;
+            return service == other.service && Objects.equals(host, other.host);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(host) + service;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.security.services.neighbor;
+
+import com.security.models.IpAddress;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * IPv6 neighbors from "ip -6 neigh show"; the kernel has no /proc file for NDP.
+ *
+ *   fe80::1 dev eth0 lladdr aa:bb:cc:dd:ee:ff router REACHABLE
+ *
+ * Entries without a link-layer address (INCOMPLETE, FAILED) are skipped. A
+ * command that has not finished within the timeout is killed, even while its
+ * output is still being read, and the read fails so the source gets disabled.
+ */
+public class IpNeighborReader implements NeighborTableReader {
+    private static final long TIMEOUT_SECONDS = 2;
+    
+    @Override
+    public List<Entry> read() throws IOException {
+        Process process = new ProcessBuilder("ip", "-6", "neigh", "show")
+            .redirectErrorStream(true)
+            .start();
+        // A stuck command would otherwise block readLine() forever
+        AtomicBoolean timedOut = new AtomicBoolean();
+        CompletableFuture.delayedExecutor(TIMEOUT_SECONDS, TimeUnit.SECONDS).execute(() -> {
+            if (process.isAlive()) {
+                timedOut.set(true);
+                kill(process);
+            }
+        });
+        
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.ISO_8859_1))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = parseLine(line);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            kill(process);
+            throw e;
+        }
+        try {
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                kill(process);
+                timedOut.set(true);
+            }
+        } catch (InterruptedException e) {
+            kill(process);
+            Thread.currentThread().interrupt();
+        }
+        if (timedOut.get()) {
+            throw new IOException("ip -6 neigh did not finish within " + TIMEOUT_SECONDS + " s");
+        }
+        return entries;
+    }
+    
+    // Children too, since any of them holding the pipe keeps readLine() waiting
+    private static void kill(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+    
+    static Entry parseLine(String line) {
+        String[] fields = line.trim().split("\\s+");
+        IpAddress address = IpAddress.parse(fields[0]);
+        if (address == null) {
+            return null;
+        }
+        String device = null;
+        String mac = null;
+        for (int i = 1; i + 1 < fields.length; i++) {
+            if (fields[i].equals("dev")) {
+                device = fields[i + 1];
+            } else if (fields[i].equals("lladdr")) {
+                mac = fields[i + 1].toLowerCase(Locale.ROOT);
+            }
+        }
+        String state = fields[fields.length - 1];
+        if (mac == null || state.equals("FAILED") || state.equals("INCOMPLETE")) {
+            return null;
+        }
+        return new Entry(address, mac, device);
+    }
+}
\ No newline at end of file
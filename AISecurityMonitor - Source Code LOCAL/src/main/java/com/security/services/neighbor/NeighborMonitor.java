@@ -0,0 +1,132 @@
+package com.security.services.neighbor;
+
+import com.security.models.DeviceInfo;
+import com.security.models.IpAddress;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Passive device inventory from the kernel neighbor tables.
+ *
+ * Each poll reads every source and diffs the result against the previous poll:
+ * new addresses are reported as added, a different MAC or interface for a known
+ * address as changed, and addresses missing from MISSES_BEFORE_REMOVAL polls in
+ * a row as removed, so an entry briefly re-resolving does not flap. Nothing is
+ * sent on the network. A source that fails (no "ip" binary, no /proc) is
+ * reported once and skipped from then on.
+ *
+ * poll() is called from one thread; isKnown() may be called from any.
+ */
+public class NeighborMonitor {
+    private static final int MISSES_BEFORE_REMOVAL = 2;
+    
+    public interface Listener {
+        void deviceAdded(DeviceInfo device);
+        
+        void deviceChanged(DeviceInfo device, String previousMac);
+        
+        void deviceRemoved(DeviceInfo device);
+    }
+    
+    private final List<NeighborTableReader> readers;
+    private final OuiDatabase oui;
+    private final Map<IpAddress, Tracked> tracked = new HashMap<>();
+    private final Set<IpAddress> known = ConcurrentHashMap.newKeySet();
+    
+    public NeighborMonitor(List<NeighborTableReader> readers, OuiDatabase oui) {
+        this.readers = new ArrayList<>(readers);
+        this.oui = oui;
+    }
+    
+    // Reads every source once and reports the differences; returns the number of live entries
+    public int poll(Listener listener) {
+        Map<IpAddress, NeighborTableReader.Entry> current = new HashMap<>();
+        Iterator<NeighborTableReader> it = readers.iterator();
+        while (it.hasNext()) {
+            NeighborTableReader reader = it.next();
+            try {
+                for (NeighborTableReader.Entry entry : reader.read()) {
+                    current.put(entry.getAddress(), entry);
+                }
+            } catch (IOException e) {
+                System.err.println("Neighbor source " + reader.getClass().getSimpleName()
+                    + " unavailable, disabling: " + e.getMessage());
+                it.remove();
+            }
+        }
+        
+        for (NeighborTableReader.Entry entry : current.values()) {
+            Tracked previous = tracked.get(entry.getAddress());
+            if (previous == null) {
+                Tracked added = new Tracked(entry, toDevice(entry));
+                tracked.put(entry.getAddress(), added);
+                known.add(entry.getAddress());
+                listener.deviceAdded(added.device);
+            } else {
+                previous.misses = 0;
+                if (!entry.getMacAddress().equals(previous.entry.getMacAddress())
+                        || !equalsNullable(entry.getInterfaceName(), previous.entry.getInterfaceName())) {
+                    String previousMac = previous.entry.getMacAddress();
+                    previous.entry = entry;
+                    previous.device = toDevice(entry);
+                    listener.deviceChanged(previous.device, previousMac);
+                }
+            }
+        }
+        
+        Iterator<Tracked> entries = tracked.values().iterator();
+        while (entries.hasNext()) {
+            Tracked entry = entries.next();
+            if (!current.containsKey(entry.entry.getAddress()) && ++entry.misses >= MISSES_BEFORE_REMOVAL) {
+                entries.remove();
+                known.remove(entry.entry.getAddress());
+                entry.device.setStatus("Offline");
+                listener.deviceRemoved(entry.device);
+            }
+        }
+        return current.size();
+    }
+    
+    // True while the neighbor table shows the address; active probing can skip it
+    public boolean isKnown(IpAddress address) {
+        return known.contains(address);
+    }
+    
+    public int getKnownCount() {
+        return known.size();
+    }
+    
+    public int getSourceCount() {
+        return readers.size();
+    }
+    
+    private DeviceInfo toDevice(NeighborTableReader.Entry entry) {
+        DeviceInfo device = new DeviceInfo();
+        device.setAddress(entry.getAddress());
+        device.setMacAddress(entry.getMacAddress());
+        device.setVendor(oui.lookup(entry.getMacAddress()));
+        device.setStatus("Online");
+        return device;
+    }
+    
+    private static boolean equalsNullable(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+    
+    private static final class Tracked {
+        NeighborTableReader.Entry entry;
+        DeviceInfo device;
+        int misses;
+        
+        Tracked(NeighborTableReader.Entry entry, DeviceInfo device) {
+            this.entry = entry;
+            this.device = device;
+        }
+    }
+}
\ No newline at end of file
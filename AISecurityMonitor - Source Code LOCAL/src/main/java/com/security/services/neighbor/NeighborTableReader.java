@@ -0,0 +1,31 @@
+package com.security.services.neighbor;
+
+import com.security.models.IpAddress;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One source of kernel neighbor entries (ARP for IPv4, NDP for IPv6).
+ * Implementations return only resolved entries, never incomplete or failed ones.
+ */
+public interface NeighborTableReader {
+    
+    List<Entry> read() throws IOException;
+    
+    final class Entry {
+        private final IpAddress address;
+        private final String macAddress;
+        private final String interfaceName;
+        
+        public Entry(IpAddress address, String macAddress, String interfaceName) {
+            this.address = address;
+            this.macAddress = macAddress;
+            this.interfaceName = interfaceName;
+        }
+        
+        public IpAddress getAddress() { return address; }
+        // Lower case, colon separated
+        public String getMacAddress() { return macAddress; }
+        public String getInterfaceName() { return interfaceName; }
+    }
+}
\ No newline at end of file
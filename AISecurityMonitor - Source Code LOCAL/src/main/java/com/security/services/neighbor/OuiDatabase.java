@@ -0,0 +1,105 @@
+package com.security.services.neighbor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MAC vendor lookup by 24-bit OUI prefix, loaded from a local file.
+ *
+ * Reads the IEEE registry ("00-1A-2B   (hex)		Vendor"), its "(base 16)"
+ * lines, and Wireshark's manuf file ("00:1A:2B	Short	Vendor"). Lines
+ * that do not start with a plain 24-bit prefix are ignored, including manuf's
+ * longer /28 and /36 assignments.
+ */
+public class OuiDatabase {
+    private final Map<Integer, String> vendors;
+    
+    private OuiDatabase(Map<Integer, String> vendors) {
+        this.vendors = vendors;
+    }
+    
+    public static OuiDatabase empty() {
+        return new OuiDatabase(new HashMap<>());
+    }
+    
+    public static OuiDatabase load(Path file) throws IOException {
+        Map<Integer, String> vendors = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                parseLine(line, vendors);
+            }
+        }
+        return new OuiDatabase(vendors);
+    }
+    
+    // "aa:bb:cc:dd:ee:ff" -> vendor, or null; randomized (locally administered) MACs never match
+    public String lookup(String macAddress) {
+        int oui = parsePrefix(macAddress);
+        if (oui < 0 || (oui & 0x020000) != 0) {
+            return null;
+        }
+        return vendors.get(oui);
+    }
+    
+    public int size() {
+        return vendors.size();
+    }
+    
+    private static void parseLine(String line, Map<Integer, String> vendors) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return;
+        }
+        int end = 0;
+        while (end < trimmed.length() && !Character.isWhitespace(trimmed.charAt(end))) {
+            end++;
+        }
+        String prefix = trimmed.substring(0, end);
+        int oui = prefix.length() == 8 || prefix.length() == 6 ? parsePrefix(prefix) : -1;
+        if (oui < 0) {
+            return;
+        }
+        
+        String vendor = trimmed.substring(end).trim();
+        if (vendor.startsWith("(hex)")) {
+            vendor = vendor.substring(5).trim();
+        } else if (vendor.startsWith("(base 16)")) {
+            vendor = vendor.substring(9).trim();
+        } else {
+            // manuf: short name, then the full name when there is one
+            int tab = vendor.lastIndexOf('\t');
+            if (tab >= 0) {
+                vendor = vendor.substring(tab + 1).trim();
+            }
+        }
+        if (!vendor.isEmpty()) {
+            vendors.putIfAbsent(oui, vendor);
+        }
+    }
+    
+    // First three octets of "aa:bb:cc...", "AA-BB-CC..." or "AABBCC"; -1 when malformed
+    private static int parsePrefix(String text) {
+        if (text == null) {
+            return -1;
+        }
+        int value = 0;
+        int digits = 0;
+        for (int i = 0; i < text.length() && digits < 6; i++) {
+            char c = text.charAt(i);
+            int digit = Character.digit(c, 16);
+            if (digit >= 0) {
+                value = (value << 4) | digit;
+                digits++;
+            } else if (c != ':' && c != '-' && c != '.') {
+                return -1;
+            }
+        }
+        return digits == 6 ? value : -1;
+    }
+}
\ No newline at end of file
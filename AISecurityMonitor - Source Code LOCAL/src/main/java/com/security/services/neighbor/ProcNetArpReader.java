@@ -0,0 +1,77 @@
+package com.security.services.neighbor;
+
+import com.security.models.IpAddress;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * IPv4 neighbors from /proc/net/arp:
+ *
+ *   IP address       HW type     Flags       HW address            Mask     Device
+ *   192.168.1.1      0x1         0x2         aa:bb:cc:dd:ee:ff     *        eth0
+ *
+ * Rows without the ATF_COM flag (0x2) are still being resolved and are skipped.
+ */
+public class ProcNetArpReader implements NeighborTableReader {
+    private static final int ATF_COM = 0x2;
+    private static final String NO_MAC = "00:00:00:00:00:00";
+    
+    private final Path path;
+    
+    public ProcNetArpReader() {
+        this(Paths.get("/proc/net/arp"));
+    }
+    
+    public ProcNetArpReader(Path path) {
+        this.path = path;
+    }
+    
+    public static boolean isAvailable() {
+        return Files.isReadable(Paths.get("/proc/net/arp"));
+    }
+    
+    @Override
+    public List<Entry> read() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.ISO_8859_1)) {
+            reader.readLine(); // header
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = parseLine(line);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+    
+    static Entry parseLine(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 6) {
+            return null;
+        }
+        IpAddress address = IpAddress.parse(fields[0]);
+        if (address == null) {
+            return null;
+        }
+        int flags;
+        try {
+            flags = Integer.decode(fields[2]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String mac = fields[3].toLowerCase(Locale.ROOT);
+        if ((flags & ATF_COM) == 0 || mac.equals(NO_MAC)) {
+            return null;
+        }
+        return new Entry(address, mac, fields[5]);
+    }
+}
\ No newline at end of file
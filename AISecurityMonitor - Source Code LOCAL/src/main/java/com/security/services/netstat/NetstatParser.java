@@ -0,0 +1,245 @@
+package com.security.services.netstat;
+
+import com.security.models.ConnectionData;
+import com.security.models.IpAddress;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for "netstat -ano" output.
+ *
+ * Reads the process output in chunks into a reused byte buffer, finds field
+ * boundaries in place and builds ConnectionData straight from the bytes.
+ * Handles IPv4 and bracketed IPv6 endpoints ("[::1]:443", "[fe80::1%12]:139"),
+ * TCP rows (proto, local, remote, state, pid) and UDP rows, which have no state
+ * and use "*:*" as the remote endpoint. Header lines and anything else that is
+ * not a socket row are skipped.
+ *
+ * Addresses are parsed straight into interned IpAddress values and states go
+ * through a small direct-mapped table, so a steady-state snapshot allocates
+ * little beyond the ConnectionData objects.
+ * Not thread-safe.
+ */
+public class NetstatParser {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 6;
+    private static final int INTERN_SLOTS = 4096;
+    
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final String[] interned = new String[INTERN_SLOTS];
+    
+    // Endpoint parsed by parseEndpoint()
+    private IpAddress endpointAddress;
+    private int endpointPort;
+    
+    // Parses the whole stream, handing each socket row to the consumer; returns the row count
+    public int parse(InputStream in, Consumer<ConnectionData> consumer) throws IOException {
+        int rows = 0;
+        int filled = 0;
+        int read;
+        while ((read = in.read(buffer, filled, buffer.length - filled)) != -1 || filled > 0) {
+            if (read > 0) {
+                filled += read;
+            }
+            
+            int lineStart = 0;
+            for (int i = 0; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    rows += emit(parseRow(buffer, lineStart, i), consumer);
+                    lineStart = i + 1;
+                }
+            }
+            
+            if (read == -1) {
+                // Last line without a trailing newline
+                rows += emit(parseRow(buffer, lineStart, filled), consumer);
+                break;
+            }
+            
+            // Keep the partial line; grow only if a single line fills the buffer
+            int remaining = filled - lineStart;
+            if (lineStart == 0 && remaining == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            } else if (lineStart > 0) {
+                System.arraycopy(buffer, lineStart, buffer, 0, remaining);
+            }
+            filled = remaining;
+        }
+        return rows;
+    }
+    
+    // Parses one row in buf[from, to), or returns null when it is not a socket row
+    public ConnectionData parseRow(byte[] buf, int from, int to) {
+        int fields = tokenize(buf, from, to);
+        if (fields < 4) {
+            return null;
+        }
+        
+        boolean udp;
+        if (startsWith(buf, fieldStart[0], fieldEnd[0], "TCP")) {
+            udp = false;
+        } else if (startsWith(buf, fieldStart[0], fieldEnd[0], "UDP")) {
+            udp = true;
+        } else {
+            return null;
+        }
+        
+        // TCP: proto local remote state pid; UDP: proto local remote pid
+        if (!udp && fields < 5) {
+            return null;
+        }
+        int pidField = udp ? 3 : 4;
+        
+        if (!parseEndpoint(buf, fieldStart[1], fieldEnd[1], null)) {
+            return null;
+        }
+        IpAddress localIP = endpointAddress;
+        int localPort = endpointPort;
+        
+        if (!parseEndpoint(buf, fieldStart[2], fieldEnd[2], localIP)) {
+            return null;
+        }
+        IpAddress remoteIP = endpointAddress;
+        int remotePort = endpointPort;
+        
+        String state = udp ? "" : intern(buf, fieldStart[3], fieldEnd[3]);
+        int pid = parseDecimal(buf, fieldStart[pidField], fieldEnd[pidField]);
+        if (pid < 0) {
+            return null;
+        }
+        
+        ConnectionData conn = new ConnectionData(udp ? "UDP" : "TCP", localIP, remoteIP, localPort, remotePort, state);
+        conn.setPid(pid);
+        return conn;
+    }
+    
+    // Records whitespace-separated field bounds; returns the number of fields (capped)
+    private int tokenize(byte[] buf, int from, int to) {
+        int fields = 0;
+        int i = from;
+        while (i < to && fields < MAX_FIELDS) {
+            while (i < to && isSpace(buf[i])) {
+                i++;
+            }
+            if (i >= to) {
+                break;
+            }
+            fieldStart[fields] = i;
+            while (i < to && !isSpace(buf[i])) {
+                i++;
+            }
+            fieldEnd[fields] = i;
+            fields++;
+        }
+        return fields;
+    }
+    
+    // "1.2.3.4:80", "[::1]:443" or "*:*"; the wildcard takes the local address family
+    private boolean parseEndpoint(byte[] buf, int from, int to, IpAddress localIP) {
+        if (to - from == 3 && buf[from] == '*' && buf[from + 2] == '*') {
+            endpointAddress = localIP != null && localIP.isIPv6() ? IpAddress.ANY_IPV6 : IpAddress.ANY_IPV4;
+            endpointPort = 0;
+            return true;
+        }
+        
+        int colon = to - 1;
+        while (colon > from && buf[colon] != ':') {
+            colon--;
+        }
+        if (colon <= from) {
+            return false;
+        }
+        
+        int addressStart = from;
+        int addressEnd = colon;
+        if (buf[from] == '[') {
+            if (buf[colon - 1] != ']') {
+                return false;
+            }
+            addressStart++;
+            addressEnd--;
+        }
+        
+        int port = colon + 2 == to && buf[colon + 1] == '*' ? 0 : parseDecimal(buf, colon + 1, to);
+        if (port < 0 || port > 65535) {
+            return false;
+        }
+        endpointAddress = IpAddress.parse(buf, addressStart, addressEnd);
+        endpointPort = port;
+        return endpointAddress != null;
+    }
+    
+    private static int parseDecimal(byte[] buf, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buf[i];
+            if (b < '0' || b > '9' || value > 100_000_000) {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+    
+    // Returns a cached String equal to buf[from, to) when the slot holds one
+    private String intern(byte[] buf, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (INTERN_SLOTS - 1);
+        
+        String cached = interned[slot];
+        if (cached != null && matches(cached, buf, from, to)) {
+            return cached;
+        }
+        // netstat writes in the console code page; localized states are kept as Latin-1
+        String value = new String(buf, from, to - from, StandardCharsets.ISO_8859_1);
+        interned[slot] = value;
+        return value;
+    }
+    
+    private static boolean matches(String s, byte[] buf, int from, int to) {
+        if (s.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != (buf[from + i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean startsWith(byte[] buf, int from, int to, String prefix) {
+        if (to - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buf[from + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+    
+    private static int emit(ConnectionData conn, Consumer<ConnectionData> consumer) {
+        if (conn == null) {
+            return 0;
+        }
+        consumer.accept(conn);
+        return 1;
+    }
+}
\ No newline at end of file
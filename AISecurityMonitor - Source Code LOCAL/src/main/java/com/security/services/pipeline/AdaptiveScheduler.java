@@ -0,0 +1,160 @@
+package com.security.services.pipeline;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a periodic task one cycle at a time. Each run is timed; when a run
+ * overruns its interval the missed slots are skipped instead of being fired
+ * back to back, and the interval is stretched (within bounds) to fit the
+ * observed cycle cost and the system load. When cycles get cheap again the
+ * interval relaxes back to the configured base.
+ */
+public class AdaptiveScheduler {
+    // Keep at least this much idle time per cycle relative to its cost
+    private static final double COST_HEADROOM = 2.0;
+    // Weight of the latest run in the smoothed cycle cost
+    private static final double COST_SMOOTHING = 0.3;
+    
+    private final String name;
+    private final Runnable task;
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private volatile long baseIntervalMillis;
+    private volatile long currentIntervalMillis;
+    private volatile double smoothedCostMillis = 0;
+    private volatile long lastDurationMillis = 0;
+    
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> nextRun;
+    private volatile boolean running = false;
+    // Bumped on every start so a cycle still in flight from before a stop cannot reschedule itself
+    private volatile long generation = 0;
+    // Held for the whole of a cycle, so a restart waits for one still in flight from before the stop
+    private final Object cycleLock = new Object();
+    
+    public AdaptiveScheduler(String name, Runnable task, long baseIntervalMillis,
+                             long minIntervalMillis, long maxIntervalMillis) {
+        this.name = name;
+        this.task = task;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = Math.max(minIntervalMillis, maxIntervalMillis);
+        this.baseIntervalMillis = clamp(baseIntervalMillis);
+        this.currentIntervalMillis = this.baseIntervalMillis;
+    }
+    
+    public synchronized void start(ScheduledExecutorService executor) {
+        if (running) {
+            return;
+        }
+        this.executor = executor;
+        this.running = true;
+        generation++;
+        scheduleNext(0);
+    }
+    
+    public synchronized void stop() {
+        running = false;
+        if (nextRun != null) {
+            nextRun.cancel(false);
+            nextRun = null;
+        }
+    }
+    
+    // Changes the base interval; a pending run that is now overdue is brought forward
+    public synchronized void setBaseIntervalMillis(long intervalMillis) {
+        baseIntervalMillis = clamp(intervalMillis);
+        currentIntervalMillis = computeInterval();
+        if (running && nextRun != null && nextRun.getDelay(TimeUnit.MILLISECONDS) > currentIntervalMillis) {
+            nextRun.cancel(false);
+            scheduleNext(currentIntervalMillis);
+        }
+    }
+    
+    private synchronized void scheduleNext(long delayMillis) {
+        if (running && !executor.isShutdown()) {
+            long scheduledGeneration = generation;
+            nextRun = executor.schedule(() -> runCycle(scheduledGeneration), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void runCycle(long scheduledGeneration) {
+        synchronized (cycleLock) {
+            if (!running || scheduledGeneration != generation) {
+                return;
+            }
+            runTimed(scheduledGeneration);
+        }
+    }
+    
+    private void runTimed(long scheduledGeneration) {
+        long interval = currentIntervalMillis;
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (Exception e) {
+            System.err.println("Error in " + name + " cycle: " + e.getMessage());
+        }
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        cycles.incrementAndGet();
+        lastDurationMillis = duration;
+        smoothedCostMillis = cycles.get() == 1 ? duration
+            : COST_SMOOTHING * duration + (1 - COST_SMOOTHING) * smoothedCostMillis;
+        
+        long missed = 0;
+        if (duration > interval) {
+            // Slots that passed while we were running are dropped, not queued
+            missed = duration / interval;
+            overruns.incrementAndGet();
+            skipped.addAndGet(missed);
+            System.out.println(name + " cycle took " + duration + " ms (interval " + interval +
+                               " ms), skipped " + missed + " cycle(s)");
+        }
+        
+        currentIntervalMillis = computeInterval();
+        
+        // Next run lands on the first slot boundary after now
+        long delay = Math.max(0, (missed + 1) * interval - duration);
+        delay = Math.min(delay, currentIntervalMillis);
+        if (scheduledGeneration == generation) {
+            scheduleNext(delay);
+        }
+    }
+    
+    private long computeInterval() {
+        double target = Math.max(baseIntervalMillis, smoothedCostMillis * COST_HEADROOM);
+        
+        // Back off further while the machine is saturated
+        double load = os.getSystemLoadAverage();
+        if (load > 0) {
+            double perCpu = load / os.getAvailableProcessors();
+            if (perCpu > 1.0) {
+                target *= Math.min(2.0, perCpu);
+            }
+        }
+        return clamp((long) target);
+    }
+    
+    private long clamp(long intervalMillis) {
+        return Math.max(minIntervalMillis, Math.min(maxIntervalMillis, intervalMillis));
+    }
+    
+    public long getBaseIntervalMillis() { return baseIntervalMillis; }
+    public long getCurrentIntervalMillis() { return currentIntervalMillis; }
+    public long getLastDurationMillis() { return lastDurationMillis; }
+    public long getCycleCount() { return cycles.get(); }
+    public long getOverrunCount() { return overruns.get(); }
+    public long getSkippedCount() { return skipped.get(); }
+    public boolean isRunning() { return running; }
+}
\ No newline at end of file
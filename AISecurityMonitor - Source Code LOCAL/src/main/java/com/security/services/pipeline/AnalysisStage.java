@@ -0,0 +1,116 @@
+package com.security.services.pipeline;
+
+import com.security.models.ConnectionData;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Scores a batch of connections on a dedicated work-stealing pool.
+ * The batch is split into index ranges, so idle workers steal the
+ * remaining halves of slow ranges (e.g. ones that hit the database).
+ */
+public class AnalysisStage {
+    // Below this many connections a range is analyzed on the current worker
+    private static final int SPLIT_THRESHOLD = 32;
+    
+    private final ForkJoinPool pool;
+    
+    public AnalysisStage(int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread worker =
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            worker.setName("analysis-" + worker.getPoolIndex());
+            worker.setDaemon(true);
+            return worker;
+        }, null, false);
+    }
+    
+    public CycleResult analyze(List<ConnectionData> connections, Consumer<ConnectionData> analyzer) {
+        if (!connections.isEmpty()) {
+            pool.invoke(new AnalyzeRange(connections, analyzer, 0, connections.size()));
+        }
+        
+        // Count after the join, in list order, so the totals do not depend on scheduling
+        int suspicious = 0;
+        int malicious = 0;
+        for (ConnectionData conn : connections) {
+            if ("SUSPICIOUS".equals(conn.getStatus())) {
+                suspicious++;
+            } else if ("MALICIOUS".equals(conn.getStatus())) {
+                malicious++;
+            }
+        }
+        return new CycleResult(connections.size(), suspicious, malicious);
+    }
+    
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+    
+    // Ranges waiting for a worker, including batches not yet picked up
+    public long getQueuedTaskCount() {
+        return pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+    }
+    
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static class AnalyzeRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final List<ConnectionData> connections;
+        private final Consumer<ConnectionData> analyzer;
+        private final int from;
+        private final int to;
+        
+        AnalyzeRange(List<ConnectionData> connections, Consumer<ConnectionData> analyzer, int from, int to) {
+            this.connections = connections;
+            this.analyzer = analyzer;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    analyzer.accept(connections.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new AnalyzeRange(connections, analyzer, from, mid),
+                      new AnalyzeRange(connections, analyzer, mid, to));
+        }
+    }
+    
+    public static class CycleResult {
+        private final int analyzed;
+        private final int suspicious;
+        private final int malicious;
+        
+        public CycleResult(int analyzed, int suspicious, int malicious) {
+            this.analyzed = analyzed;
+            this.suspicious = suspicious;
+            this.malicious = malicious;
+        }
+        
+        public int getAnalyzed() { return analyzed; }
+        public int getSuspicious() { return suspicious; }
+        public int getMalicious() { return malicious; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.security.services.procnet;
+
+import com.security.models.ConnectionData;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Linux connection snapshot read straight from /proc/net, without forking netstat or ss.
+ * Each table is read with one FileChannel into a buffer that is reused across scans
+ * and only grows when a table outgrows it.
+ */
+public class ProcNetConnectionSource {
+    private static final String[] TABLES = { "tcp", "tcp6", "udp", "udp6" };
+    private static final int INITIAL_BUFFER_SIZE = 256 * 1024;
+    
+    private final Path procNet;
+    private final ProcNetParser parser = new ProcNetParser();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private int lastCount = 64;
+    
+    public ProcNetConnectionSource() {
+        this(Paths.get("/proc/net"));
+    }
+    
+    public ProcNetConnectionSource(Path procNet) {
+        this.procNet = procNet;
+    }
+    
+    public static boolean isAvailable() {
+        return Files.isReadable(Paths.get("/proc/net/tcp"));
+    }
+    
+    public synchronized List<ConnectionData> scan() {
+        List<ConnectionData> connections = new ArrayList<>(lastCount + lastCount / 4);
+        for (String table : TABLES) {
+            Path file = procNet.resolve(table);
+            try {
+                int length = readFully(file);
+                parser.parse(buffer.array(), length, table.startsWith("udp"), connections);
+            } catch (IOException e) {
+                // tcp6/udp6 are missing when IPv6 is disabled
+                if (Files.exists(file)) {
+                    System.err.println("Failed to read " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        lastCount = connections.size();
+        return connections;
+    }
+    
+    // /proc files report a size of 0, so read until EOF and grow when full
+    private int readFully(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+            return buffer.position();
+        }
+    }
+}
\ No newline at end of file
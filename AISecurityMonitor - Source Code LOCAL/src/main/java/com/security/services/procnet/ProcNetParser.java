@@ -0,0 +1,192 @@
+package com.security.services.procnet;
+
+import com.security.models.ConnectionData;
+import com.security.models.IpAddress;
+import java.util.List;
+
+/**
+ * Byte-level parser for the Linux /proc/net/{tcp,tcp6,udp,udp6} tables.
+ *
+ * Rows look like
+ *   "   1: 0100007F:BC8F 0100007F:E920 01 00000000:00000000 00:00000000 00000000  1000  0 2515 ..."
+ * Addresses are hex words in host (little-endian) byte order, ports are big-endian
+ * hex. Fields are walked in place without String.split or regex; addresses are built
+ * straight from the hex words, so the only per-row allocation is the ConnectionData.
+ * Not thread-safe; each source owns one parser.
+ */
+public class ProcNetParser {
+    // Kernel TCP state codes (include/net/tcp_states.h), named the way netstat reports them
+    private static final String[] TCP_STATES = {
+        "UNKNOWN", "ESTABLISHED", "SYN_SENT", "SYN_RECEIVED", "FIN_WAIT_1", "FIN_WAIT_2",
+        "TIME_WAIT", "CLOSED", "CLOSE_WAIT", "LAST_ACK", "LISTENING", "CLOSING", "SYN_RECEIVED"
+    };
+    
+    private final int[] addressWords = new int[4];
+    private int pos;
+    
+    // Parses every row in buf[0, length); the first line is the column header
+    public int parse(byte[] buf, int length, boolean udp, List<ConnectionData> out) {
+        int parsed = 0;
+        int lineStart = nextLine(buf, 0, length);
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && buf[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            ConnectionData conn = parseRow(buf, lineStart, lineEnd, udp);
+            if (conn != null) {
+                out.add(conn);
+                parsed++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return parsed;
+    }
+    
+    // Parses one row in buf[from, to), or returns null when it is not a socket row
+    public ConnectionData parseRow(byte[] buf, int from, int to, boolean udp) {
+        pos = from;
+        
+        // "sl:" slot number
+        skipSpaces(buf, to);
+        int slotStart = pos;
+        while (pos < to && buf[pos] >= '0' && buf[pos] <= '9') {
+            pos++;
+        }
+        if (pos == slotStart || pos >= to || buf[pos] != ':') {
+            return null;
+        }
+        pos++;
+        
+        skipSpaces(buf, to);
+        IpAddress localIP = parseAddress(buf, to);
+        if (localIP == null || !expect(buf, to, ':')) {
+            return null;
+        }
+        int localPort = (int) parseHex(buf, to);
+        
+        skipSpaces(buf, to);
+        IpAddress remoteIP = parseAddress(buf, to);
+        if (remoteIP == null || !expect(buf, to, ':')) {
+            return null;
+        }
+        int remotePort = (int) parseHex(buf, to);
+        
+        skipSpaces(buf, to);
+        int stateCode = (int) parseHex(buf, to);
+        
+        // tx_queue:rx_queue, tr:tm->when, retrnsmt, uid, timeout, then the inode
+        for (int field = 0; field < 5; field++) {
+            skipSpaces(buf, to);
+            skipToken(buf, to);
+        }
+        skipSpaces(buf, to);
+        long inode = parseDecimal(buf, to);
+        
+        ConnectionData conn = new ConnectionData(
+            udp ? "UDP" : "TCP",
+            localIP,
+            remoteIP,
+            localPort,
+            remotePort,
+            udp ? udpState(stateCode) : tcpState(stateCode)
+        );
+        conn.setInode(inode);
+        return conn;
+    }
+    
+    private String tcpState(int code) {
+        return code > 0 && code < TCP_STATES.length ? TCP_STATES[code] : "UNKNOWN";
+    }
+    
+    // UDP sockets only report "established" when connect() was called on them
+    private String udpState(int code) {
+        return code == 1 ? "ESTABLISHED" : "";
+    }
+    
+    // 8 hex digits for IPv4, 32 for IPv6
+    private IpAddress parseAddress(byte[] buf, int to) {
+        int start = pos;
+        while (pos < to && hexValue(buf[pos]) >= 0) {
+            pos++;
+        }
+        int digits = pos - start;
+        if (digits == 8) {
+            return IpAddress.ofIPv4(Integer.reverseBytes((int) hexRange(buf, start, start + 8)));
+        }
+        if (digits != 32) {
+            return null;
+        }
+        
+        for (int word = 0; word < 4; word++) {
+            int offset = start + word * 8;
+            addressWords[word] = Integer.reverseBytes((int) hexRange(buf, offset, offset + 8));
+        }
+        // IPv4-mapped (::ffff:a.b.c.d) comes back as plain IPv4 so it scores like IPv4
+        return IpAddress.ofIPv6(
+            ((long) addressWords[0] << 32) | (addressWords[1] & 0xFFFFFFFFL),
+            ((long) addressWords[2] << 32) | (addressWords[3] & 0xFFFFFFFFL));
+    }
+    
+    private long parseHex(byte[] buf, int to) {
+        long value = 0;
+        int digit;
+        while (pos < to && (digit = hexValue(buf[pos])) >= 0) {
+            value = (value << 4) | digit;
+            pos++;
+        }
+        return value;
+    }
+    
+    private static long hexRange(byte[] buf, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = (value << 4) | hexValue(buf[i]);
+        }
+        return value;
+    }
+    
+    private long parseDecimal(byte[] buf, int to) {
+        long value = 0;
+        while (pos < to && buf[pos] >= '0' && buf[pos] <= '9') {
+            value = value * 10 + (buf[pos] - '0');
+            pos++;
+        }
+        return value;
+    }
+    
+    private static int hexValue(byte b) {
+        if (b >= '0' && b <= '9') return b - '0';
+        if (b >= 'A' && b <= 'F') return b - 'A' + 10;
+        if (b >= 'a' && b <= 'f') return b - 'a' + 10;
+        return -1;
+    }
+    
+    private boolean expect(byte[] buf, int to, char c) {
+        if (pos < to && buf[pos] == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+    
+    private void skipSpaces(byte[] buf, int to) {
+        while (pos < to && (buf[pos] == ' ' || buf[pos] == '\t')) {
+            pos++;
+        }
+    }
+    
+    private void skipToken(byte[] buf, int to) {
+        while (pos < to && buf[pos] != ' ' && buf[pos] != '\t') {
+            pos++;
+        }
+    }
+    
+    private static int nextLine(byte[] buf, int from, int length) {
+        int i = from;
+        while (i < length && buf[i] != '\n') {
+            i++;
+        }
+        return i + 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.security.services.procnet;
+
+import com.security.models.ConnectionData;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Socket inode to owning process index built from /proc/<pid>/fd.
+ *
+ * Each refresh lists /proc to find processes that started or exited. New PIDs
+ * have their fd table scanned and their exe and cmdline read once; exited PIDs
+ * are dropped together with their sockets. Known PIDs are rescanned round-robin
+ * so sockets they open later are picked up. The number of fd tables walked per
+ * refresh is capped, so a host with thousands of processes catches up over a
+ * few cycles instead of stalling one. Not thread-safe.
+ */
+public class ProcessIndex {
+    private static final int DEFAULT_SCAN_BUDGET = 256;
+    private static final int MAX_CMDLINE_LENGTH = 512;
+    private static final String SOCKET_PREFIX = "socket:[";
+    
+    private final Path proc;
+    private final int scanBudget;
+    
+    private final Map<Integer, ProcessInfo> processes = new HashMap<>();
+    private final Map<Long, ProcessInfo> socketOwners = new HashMap<>();
+    // New PIDs not yet scanned, then known PIDs in rescan order
+    private final ArrayDeque<Integer> pending = new ArrayDeque<>();
+    private final ArrayDeque<Integer> rescanQueue = new ArrayDeque<>();
+    private final Set<Integer> live = new HashSet<>();
+    
+    public ProcessIndex() {
+        this(Paths.get("/proc"), DEFAULT_SCAN_BUDGET);
+    }
+    
+    public ProcessIndex(Path proc, int scanBudget) {
+        this.proc = proc;
+        this.scanBudget = Math.max(1, scanBudget);
+    }
+    
+    public static boolean isAvailable() {
+        return Files.isDirectory(Paths.get("/proc/self/fd"));
+    }
+    
+    // Brings the index up to date; returns the number of fd tables scanned
+    public int refresh() {
+        live.clear();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(proc)) {
+            for (Path entry : entries) {
+                int pid = parsePid(entry.getFileName().toString());
+                if (pid > 0) {
+                    live.add(pid);
+                    if (!processes.containsKey(pid)) {
+                        processes.put(pid, new ProcessInfo(pid));
+                        pending.add(pid);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list " + proc + ": " + e.getMessage());
+            return 0;
+        }
+        
+        expireExited();
+        
+        // PIDs first scanned below are not rescanned in the same refresh
+        int known = rescanQueue.size();
+        int scanned = 0;
+        while (scanned < scanBudget && !pending.isEmpty()) {
+            ProcessInfo info = processes.get(pending.poll());
+            if (info != null) {
+                readIdentity(info);
+                scanSockets(info);
+                rescanQueue.add(info.pid);
+                scanned++;
+            }
+        }
+        
+        // Whatever budget is left goes to rescanning known processes, oldest scan first
+        int rescans = Math.min(scanBudget - scanned, known);
+        for (int i = 0; i < rescans; i++) {
+            Integer pid = rescanQueue.poll();
+            ProcessInfo info = processes.get(pid);
+            if (info != null) {
+                checkIdentity(info);
+                scanSockets(info);
+                rescanQueue.add(pid);
+                scanned++;
+            }
+        }
+        return scanned;
+    }
+    
+    // Fills pid and process fields on connections whose socket inode is indexed
+    public void attribute(List<ConnectionData> connections) {
+        for (ConnectionData conn : connections) {
+            if (conn.getInode() == 0) {
+                continue;
+            }
+            ProcessInfo info = socketOwners.get(conn.getInode());
+            if (info != null) {
+                conn.setPid(info.pid);
+                conn.setProcessName(info.exe);
+                conn.setCommandLine(info.cmdline);
+            }
+        }
+    }
+    
+    public ProcessInfo lookup(long inode) {
+        return socketOwners.get(inode);
+    }
+    
+    public int getProcessCount() { return processes.size(); }
+    public int getSocketCount() { return socketOwners.size(); }
+    public int getPendingCount() { return pending.size(); }
+    
+    private void expireExited() {
+        Iterator<Map.Entry<Integer, ProcessInfo>> it = processes.entrySet().iterator();
+        while (it.hasNext()) {
+            ProcessInfo info = it.next().getValue();
+            if (!live.contains(info.pid)) {
+                forgetSockets(info);
+                it.remove();
+            }
+        }
+        // Queued PIDs of exited processes are skipped when polled
+        if (pending.size() + rescanQueue.size() > 2 * processes.size() + scanBudget) {
+            pending.removeIf(pid -> !processes.containsKey(pid));
+            rescanQueue.removeIf(pid -> !processes.containsKey(pid));
+        }
+    }
+    
+    // exe and cmdline are fixed for the life of a process; read once
+    private void readIdentity(ProcessInfo info) {
+        Path dir = proc.resolve(Integer.toString(info.pid));
+        try {
+            info.exe = Files.readSymbolicLink(dir.resolve("exe")).toString();
+        } catch (IOException | UnsupportedOperationException e) {
+            // Kernel threads have no exe; other users' processes need privileges
+        }
+        try {
+            byte[] raw = Files.readAllBytes(dir.resolve("cmdline"));
+            int length = Math.min(raw.length, MAX_CMDLINE_LENGTH);
+            while (length > 0 && raw[length - 1] == 0) {
+                length--;
+            }
+            for (int i = 0; i < length; i++) {
+                if (raw[i] == 0) {
+                    raw[i] = ' ';
+                }
+            }
+            info.cmdline = new String(raw, 0, length, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Process exited between listing and reading
+        }
+    }
+    
+    // A PID reused between two refreshes shows up as a different exe
+    private void checkIdentity(ProcessInfo info) {
+        String exe = null;
+        try {
+            exe = Files.readSymbolicLink(proc.resolve(Integer.toString(info.pid)).resolve("exe")).toString();
+        } catch (IOException | UnsupportedOperationException e) {
+            // Unreadable; keep what we have
+        }
+        if (exe != null && !exe.equals(info.exe)) {
+            readIdentity(info);
+        }
+    }
+    
+    private void scanSockets(ProcessInfo info) {
+        forgetSockets(info);
+        Path fdDir = proc.resolve(Integer.toString(info.pid)).resolve("fd");
+        List<Long> inodes = new ArrayList<>();
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(fdDir)) {
+            for (Path fd : fds) {
+                long inode = socketInode(fd);
+                if (inode > 0) {
+                    inodes.add(inode);
+                }
+            }
+        } catch (IOException e) {
+            // Exited, or owned by another user without CAP_SYS_PTRACE
+        }
+        
+        info.inodes = new long[inodes.size()];
+        for (int i = 0; i < info.inodes.length; i++) {
+            long inode = inodes.get(i);
+            info.inodes[i] = inode;
+            // A socket shared after fork() is attributed to the first process seen holding it
+            socketOwners.putIfAbsent(inode, info);
+        }
+    }
+    
+    private void forgetSockets(ProcessInfo info) {
+        for (long inode : info.inodes) {
+            socketOwners.remove(inode, info);
+        }
+        info.inodes = new long[0];
+    }
+    
+    // fd symlinks to sockets read "socket:[12345]"
+    private static long socketInode(Path fd) {
+        String target;
+        try {
+            target = Files.readSymbolicLink(fd).toString();
+        } catch (IOException | UnsupportedOperationException e) {
+            return 0;
+        }
+        if (!target.startsWith(SOCKET_PREFIX) || !target.endsWith("]")) {
+            return 0;
+        }
+        long inode = 0;
+        for (int i = SOCKET_PREFIX.length(); i < target.length() - 1; i++) {
+            char c = target.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            inode = inode * 10 + (c - '0');
+        }
+        return inode;
+    }
+    
+    private static int parsePid(String name) {
+        if (name.isEmpty() || name.length() > 9) {
+            return -1;
+        }
+        int pid = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            pid = pid * 10 + (c - '0');
+        }
+        return pid;
+    }
+    
+    public static final class ProcessInfo {
+        final int pid;
+        String exe;
+        String cmdline;
+        long[] inodes = new long[0];
+        
+        ProcessInfo(int pid) {
+            this.pid = pid;
+        }
+        
+        public int getPid() { return pid; }
+        public String getExe() { return exe; }
+        public String getCmdline() { return cmdline; }
+    }
+}
\ No newline at end of file
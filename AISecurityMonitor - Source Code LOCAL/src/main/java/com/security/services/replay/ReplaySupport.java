@@ -0,0 +1,53 @@
+package com.security.services.replay;
+
+import com.security.AISecurityMonitor;
+import com.security.events.EventBus;
+import com.security.services.metrics.StageMetrics;
+
+// Draining and summary lines shared by the snapshot and capture replays
+final class ReplaySupport {
+    // How long to wait for the database subscriber to catch up after the last batch
+    private static final long DRAIN_TIMEOUT_MS = 60_000;
+    
+    // Done once every event the database subscriber accepted was persisted or shed
+    static boolean awaitPersistence(AISecurityMonitor monitor) {
+        EventBus.Subscription database = monitor.getPersistSubscription();
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        while (database.getDelivered() + database.getDropped() < database.getAccepted()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    static void printPersistence(AISecurityMonitor monitor, long scored, long totalNanos, boolean drained) {
+        EventBus.Subscription database = monitor.getPersistSubscription();
+        double totalSeconds = totalNanos / 1e9;
+        System.out.println(String.format("End-to-end incl. persistence: %.3f s, %.0f scored/s%s",
+            totalSeconds, rate(scored, totalSeconds), drained ? "" : " (database did not catch up)"));
+        System.out.println(String.format("Database queue: %d persisted, %d dropped",
+            database.getDelivered(), database.getDropped()));
+    }
+    
+    static void printStageHeader() {
+        System.out.println(String.format("%-10s %8s %10s %10s %10s %10s %12s",
+            "stage", "batches", "items", "mean ms", "max ms", "total ms", "items/s"));
+    }
+    
+    static void printStage(String name, StageMetrics stats) {
+        System.out.println(String.format("%-10s %8d %10d %10.3f %10.3f %10.1f %12.0f",
+            name, stats.getCount(), stats.getItems(), stats.getMeanMicros() / 1e3, stats.getMaxMicros() / 1e3,
+            stats.getTotalNanos() / 1e6, stats.getItemsPerSecond()));
+    }
+    
+    static double rate(long items, double seconds) {
+        return seconds > 0 ? items / seconds : 0.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.security.services.replay;
+
+import com.security.models.ConnectionData;
+import com.security.services.netstat.NetstatParser;
+import com.security.services.procnet.ProcNetParser;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Streams recorded connection snapshots from a capture file, one snapshot at a time.
+ *
+ * A snapshot starts with "# snapshot <epochMillis|ISO-8601>" and is followed by
+ * raw "netstat -ano" rows and/or /proc/net rows. "# proc tcp|tcp6|udp|udp6" marks
+ * which /proc/net table the following rows were dumped from. Headers and any
+ * other lines are ignored.
+ */
+public class SnapshotReader implements Closeable {
+    private static final String SNAPSHOT_MARKER = "# snapshot";
+    private static final String PROC_MARKER = "# proc";
+    
+    private final BufferedReader reader;
+    private final NetstatParser netstatParser = new NetstatParser();
+    private final ProcNetParser procNetParser = new ProcNetParser();
+    private String pendingHeader;
+    private boolean finished;
+    private long skippedLines;
+    
+    public SnapshotReader(Path file) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+    
+    // Returns the next snapshot, or null at end of file
+    public Snapshot next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        
+        String header = pendingHeader;
+        pendingHeader = null;
+        long timestamp = header != null ? parseTimestamp(header) : System.currentTimeMillis();
+        List<ConnectionData> connections = new ArrayList<>();
+        String procTable = null;
+        
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.startsWith(SNAPSHOT_MARKER)) {
+                if (header != null || !connections.isEmpty()) {
+                    pendingHeader = trimmed;
+                    return stamp(new Snapshot(timestamp, connections));
+                }
+                header = trimmed;
+                timestamp = parseTimestamp(header);
+                continue;
+            }
+            if (trimmed.startsWith(PROC_MARKER)) {
+                procTable = trimmed.substring(PROC_MARKER.length()).trim().toLowerCase();
+                continue;
+            }
+            
+            ConnectionData conn = null;
+            if (trimmed.startsWith("TCP") || trimmed.startsWith("UDP")) {
+                conn = parseNetstatLine(trimmed);
+            } else if (procTable != null && isProcRow(trimmed)) {
+                conn = parseProcLine(trimmed, procTable);
+            }
+            
+            if (conn != null) {
+                connections.add(conn);
+            } else if (!isHeaderLine(trimmed)) {
+                skippedLines++;
+            }
+        }
+        
+        finished = true;
+        if (header == null && connections.isEmpty()) {
+            return null;
+        }
+        return stamp(new Snapshot(timestamp, connections));
+    }
+    
+    public long getSkippedLines() { return skippedLines; }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    // Recorded connections carry the capture time, not the replay time
+    private Snapshot stamp(Snapshot snapshot) {
+        Date when = new Date(snapshot.getTimestampMillis());
+        for (ConnectionData conn : snapshot.getConnections()) {
+            conn.setTimestamp(when);
+            conn.setFirstSeen(snapshot.getTimestampMillis());
+            conn.setLastSeen(snapshot.getTimestampMillis());
+        }
+        return snapshot;
+    }
+    
+    private long parseTimestamp(String header) {
+        String value = header.substring(SNAPSHOT_MARKER.length()).trim();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return Instant.parse(value).toEpochMilli();
+            } catch (Exception ignored) {
+                System.err.println("Invalid snapshot timestamp: " + value);
+                return System.currentTimeMillis();
+            }
+        }
+    }
+    
+    private boolean isProcRow(String line) {
+        int colon = line.indexOf(':');
+        if (colon <= 0) {
+            return false;
+        }
+        for (int i = 0; i < colon; i++) {
+            if (!Character.isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean isHeaderLine(String line) {
+        return line.startsWith("#") || line.startsWith("Active") || line.startsWith("Proto")
+            || line.startsWith("sl");
+    }
+    
+    private ConnectionData parseNetstatLine(String line) {
+        byte[] row = line.getBytes(StandardCharsets.ISO_8859_1);
+        return netstatParser.parseRow(row, 0, row.length);
+    }
+    
+    private ConnectionData parseProcLine(String line, String table) {
+        byte[] row = line.getBytes(StandardCharsets.US_ASCII);
+        return procNetParser.parseRow(row, 0, row.length, table.startsWith("udp"));
+    }
+    
+    public static class Snapshot {
+        private final long timestampMillis;
+        private final List<ConnectionData> connections;
+        
+        public Snapshot(long timestampMillis, List<ConnectionData> connections) {
+            this.timestampMillis = timestampMillis;
+            this.connections = connections;
+        }
+        
+        public long getTimestampMillis() { return timestampMillis; }
+        public List<ConnectionData> getConnections() { return connections; }
+    }
+}
\ No newline at end of file
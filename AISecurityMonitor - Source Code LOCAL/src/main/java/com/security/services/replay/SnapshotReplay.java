@@ -0,0 +1,126 @@
+package com.security.services.replay;
+
+import com.security.AISecurityMonitor;
+import com.security.events.MonitorEvent;
+import com.security.services.jfr.MonitorCycleEvent;
+import com.security.services.metrics.StageMetrics;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds recorded snapshots through AISecurityMonitor.processSnapshot() in place of
+ * the live scanner, either at the pace they were captured or as fast as possible,
+ * and reports throughput and per-stage latency once the file is exhausted.
+ */
+public class SnapshotReplay {
+    public enum Pace { ORIGINAL, FAST }
+    
+    private final AISecurityMonitor monitor;
+    private final Pace pace;
+    
+    // Replay-only stages; persist comes from the monitor's own databaseWrite stage
+    private final StageMetrics parseLatency = new StageMetrics("parse");
+    private final StageMetrics trackLatency = new StageMetrics("track");
+    private final StageMetrics analysisLatency = new StageMetrics("analyze");
+    private final StageMetrics cycleLatency = new StageMetrics("cycle");
+    
+    public SnapshotReplay(AISecurityMonitor monitor, Pace pace) {
+        this.monitor = monitor;
+        this.pace = pace;
+    }
+    
+    public void run(Path file) throws IOException {
+        long snapshots = 0;
+        long connections = 0;
+        long scored = 0;
+        long previousCapture = -1;
+        long previousSubmit = 0;
+        long start = System.nanoTime();
+        
+        try (SnapshotReader reader = new SnapshotReader(file)) {
+            while (true) {
+                long parseStart = System.nanoTime();
+                SnapshotReader.Snapshot snapshot = reader.next();
+                if (snapshot == null) {
+                    break;
+                }
+                parseLatency.record(System.nanoTime() - parseStart, snapshot.getConnections().size());
+                
+                if (pace == Pace.ORIGINAL && previousCapture >= 0) {
+                    waitForCaptureGap(snapshot.getTimestampMillis() - previousCapture, previousSubmit);
+                }
+                previousCapture = snapshot.getTimestampMillis();
+                previousSubmit = System.nanoTime();
+                
+                MonitorCycleEvent cycleEvent = new MonitorCycleEvent();
+                cycleEvent.begin();
+                MonitorEvent.CycleCompleted cycle =
+                    monitor.processSnapshot(snapshot.getConnections(), snapshot.getTimestampMillis());
+                cycleEvent.end();
+                if (cycleEvent.shouldCommit()) {
+                    cycleEvent.replay = true;
+                    cycleEvent.connections = cycle.getConnections();
+                    cycleEvent.scored = cycle.getScored();
+                    cycleEvent.closed = cycle.getClosed();
+                    cycleEvent.suspicious = cycle.getSuspicious();
+                    cycleEvent.malicious = cycle.getMalicious();
+                    cycleEvent.commit();
+                }
+                
+                trackLatency.record(cycle.getTrackNanos(), cycle.getConnections());
+                analysisLatency.record(cycle.getAnalysisNanos(), cycle.getScored());
+                cycleLatency.record(System.nanoTime() - previousSubmit, cycle.getConnections());
+                
+                snapshots++;
+                connections += cycle.getConnections();
+                scored += cycle.getScored();
+            }
+            
+            if (reader.getSkippedLines() > 0) {
+                System.out.println("Skipped " + reader.getSkippedLines() + " unparseable lines");
+            }
+        }
+        
+        long processed = System.nanoTime();
+        boolean drained = ReplaySupport.awaitPersistence(monitor);
+        long end = System.nanoTime();
+        
+        report(snapshots, connections, scored, processed - start, end - start, drained);
+    }
+    
+    private void waitForCaptureGap(long gapMillis, long previousSubmitNanos) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(Math.max(0, gapMillis))
+            - (System.nanoTime() - previousSubmitNanos);
+        if (remaining > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private void report(long snapshots, long connections, long scored,
+                        long processNanos, long totalNanos, boolean drained) {
+        double processSeconds = processNanos / 1e9;
+        
+        System.out.println();
+        System.out.println("=== Replay summary (" + pace + ") ===");
+        System.out.println(String.format("Snapshots: %d, connections: %d, scored: %d",
+            snapshots, connections, scored));
+        System.out.println(String.format("Pipeline: %.3f s, %.0f connections/s, %.0f scored/s",
+            processSeconds, ReplaySupport.rate(connections, processSeconds),
+            ReplaySupport.rate(scored, processSeconds)));
+        System.out.println(String.format("Verdicts kept: %.1f%% of tracked connections, the rest scored",
+            monitor.getConnectionTracker().getReuseRatio() * 100));
+        ReplaySupport.printPersistence(monitor, scored, totalNanos, drained);
+        
+        ReplaySupport.printStageHeader();
+        ReplaySupport.printStage("parse", parseLatency);
+        ReplaySupport.printStage("track", trackLatency);
+        ReplaySupport.printStage("analyze", analysisLatency);
+        ReplaySupport.printStage("cycle", cycleLatency);
+        ReplaySupport.printStage("persist", monitor.getMetrics().getDatabaseWrite());
+    }
+}
\ No newline at end of file
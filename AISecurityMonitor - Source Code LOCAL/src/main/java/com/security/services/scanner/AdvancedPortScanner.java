@@ -1,135 +1,74 @@
 package com.security.services.scanner;
 
+import java.io.IOException;
 import java.net.*;
 import java.util.*;
-import java.util.concurrent.*;
 
+/**
+ * TCP connect scanner (with a UDP fallback on DNS, NTP and SNMP) over a
+ * PortScanEngine: all probes are multiplexed on one Selector in the calling
+ * thread, up to maxInFlight at a time, instead of a thread per host and port.
+ */
 public class AdvancedPortScanner {
-    private static final int THREAD_POOL_SIZE = 100;
     private static final int TIMEOUT = 1000;
+    private static final int MAX_IN_FLIGHT = 4096;
     private static final int[] COMMON_PORTS = {
         21, 22, 23, 25, 53, 80, 110, 111, 135, 139, 143, 443,
         445, 993, 995, 1723, 3306, 3389, 5900, 8080
     };
+    // Common ports first (they double as the liveness check), then the rest of 1-1024
+    private static final int[] HOST_PORTS = hostPorts();
+    
+    private final PortScanEngine engine;
+    
+    public AdvancedPortScanner() {
+        this(TIMEOUT, MAX_IN_FLIGHT);
+    }
+    
+    public AdvancedPortScanner(int timeoutMillis, int maxInFlight) {
+        this.engine = new PortScanEngine(timeoutMillis, maxInFlight, this::identifyService);
+    }
     
     public Map<String, List<PortScanResult>> scanNetworkRange(String networkPrefix, int start, int end) {
-        Map<String, List<PortScanResult>> results = new ConcurrentHashMap<>();
-        ExecutorService executor = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
-        List<Future<?>> futures = new ArrayList<>();
-        
+        List<String> hosts = new ArrayList<>();
         for (int i = start; i <= end; i++) {
-            // Create final variable for lambda
-            final String ip = networkPrefix + i;
-            futures.add(executor.submit(() -> {
-                List<PortScanResult> portResults = scanHost(ip);
-                if (!portResults.isEmpty()) {
-                    results.put(ip, portResults);
-                }
-            }));
+            hosts.add(networkPrefix + i);
         }
-        
-        // Wait for all scans to complete
-        for (Future<?> future : futures) {
-            try {
-                future.get();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-        
-        executor.shutdown();
-        return results;
+        return scan(hosts, HOST_PORTS, COMMON_PORTS.length);
     }
     
     public List<PortScanResult> scanHost(String ip) {
-        List<PortScanResult> results = new ArrayList<>();
-        
-        // First check if host is alive
-        if (!isHostAlive(ip)) {
-            return results;
-        }
-        
-        ExecutorService executor = Executors.newFixedThreadPool(50);
-        List<Future<PortScanResult>> futures = new ArrayList<>();
-        
-        // Scan common ports
-        for (int port : COMMON_PORTS) {
-            final int currentPort = port; // Make final for lambda
-            futures.add(executor.submit(() -> scanPort(ip, currentPort)));
-        }
-        
-        // Optional: Scan port ranges
-        for (int port = 1; port <= 1024; port++) {
-            if (!contains(COMMON_PORTS, port)) {
-                final int currentPort = port; // Make final for lambda
-                futures.add(executor.submit(() -> scanPort(ip, currentPort)));
-            }
-        }
-        
-        for (Future<PortScanResult> future : futures) {
-            try {
-                PortScanResult result = future.get(TIMEOUT, TimeUnit.MILLISECONDS);
-                if (result != null && result.isOpen()) {
-                    results.add(result);
-                }
-            } catch (Exception e) {
-                // Port is closed or filtered
-            }
-        }
-        
-        executor.shutdown();
-        return results;
+        List<PortScanResult> results = scan(Collections.singletonList(ip), HOST_PORTS, COMMON_PORTS.length).get(ip);
+        return results != null ? results : new ArrayList<>();
     }
     
+    // Probes one port without a liveness check; null unless it is open
     public PortScanResult scanPort(String ip, int port) {
-        try {
-            Socket socket = new Socket();
-            socket.connect(new InetSocketAddress(ip, port), TIMEOUT);
-            socket.close();
-            
-            String service = identifyService(port);
-            return new PortScanResult(ip, port, "TCP", "open", service);
-        } catch (Exception e) {
-            // Try UDP scan for specific ports
-            if (port == 53 || port == 123 || port == 161) {
-                if (scanUDPPort(ip, port)) {
-                    String service = identifyService(port);
-                    return new PortScanResult(ip, port, "UDP", "open", service);
-                }
-            }
-        }
-        return null;
+        List<PortScanResult> results = scan(Collections.singletonList(ip), new int[] {port}, 0).get(ip);
+        return results != null ? results.get(0) : null;
     }
     
-    private boolean scanUDPPort(String ip, int port) {
+    private Map<String, List<PortScanResult>> scan(List<String> hosts, int[] ports, int alivePorts) {
         try {
-            DatagramSocket socket = new DatagramSocket();
-            socket.setSoTimeout(TIMEOUT);
-            
-            InetAddress address = InetAddress.getByName(ip);
-            byte[] buffer = new byte[1024];
-            
-            // Send empty packet
-            DatagramPacket packet = new DatagramPacket(buffer, buffer.length, address, port);
-            socket.send(packet);
-            
-            // Try to receive response
-            socket.receive(packet);
-            socket.close();
-            return true;
-        } catch (Exception e) {
-            // Port might be open but not responding
+            return engine.scan(hosts, ports, alivePorts);
+        } catch (IOException e) {
+            System.err.println("Port scan failed: " + e.getMessage());
+            return new HashMap<>();
         }
-        return false;
     }
     
-    private boolean isHostAlive(String ip) {
-        try {
-            InetAddress address = InetAddress.getByName(ip);
-            return address.isReachable(TIMEOUT);
-        } catch (Exception e) {
-            return false;
+    private static int[] hostPorts() {
+        int[] ports = new int[1024 + COMMON_PORTS.length];
+        int count = 0;
+        for (int port : COMMON_PORTS) {
+            ports[count++] = port;
+        }
+        for (int port = 1; port <= 1024; port++) {
+            if (!contains(COMMON_PORTS, port)) {
+                ports[count++] = port;
+            }
         }
+        return Arrays.copyOf(ports, count);
     }
     
     private String identifyService(int port) {
@@ -157,7 +96,7 @@ public class AdvancedPortScanner {
         return services.getOrDefault(port, "Unknown");
     }
     
-    private boolean contains(int[] array, int value) {
+    private static boolean contains(int[] array, int value) {
         for (int item : array) {
             if (item == value) return true;
         }
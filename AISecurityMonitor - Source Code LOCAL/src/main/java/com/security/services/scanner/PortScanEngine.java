@@ -0,0 +1,419 @@
+package com.security.services.scanner;
+
+import com.security.services.jfr.PortProbeEvent;
+import com.security.services.jfr.PortScanHostEvent;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking port scan driven from the calling thread through one Selector.
+ *
+ * Hosts are scanned in order, each host's ports in the order given, with up to
+ * maxInFlight probes open at once across all hosts. The first alivePorts ports
+ * double as the liveness check: the rest of a host's ports are only probed once
+ * one of them connects or is refused. TCP probes that do not connect on the
+ * UDP_PORTS fall back to a UDP probe with the same deadline budget. Deadlines
+ * sit in a timer wheel, so a filtered host costs one timeout, not one per port.
+ *
+ * When the process runs out of file descriptors the in-flight cap is lowered to
+ * what is already open, so large caps need a matching ulimit -n.
+ *
+ * Shared by AdvancedPortScanner and SubnetDiscovery; a sweep that only wants to
+ * know which hosts answer passes every port as a liveness port.
+ */
+public final class PortScanEngine {
+    private static final int[] UDP_PORTS = {53, 123, 161};
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WHEEL_BUCKETS = 1024;
+    
+    public interface ServiceNames {
+        String identify(int port);
+    }
+    
+    public interface HostListener {
+        // Called once per host after all of its probes resolved; open holds its open ports in port order
+        void hostScanned(String ip, boolean alive, List<AdvancedPortScanner.PortScanResult> open);
+    }
+    
+    private final long timeoutNanos;
+    private final int maxInFlight;
+    private final ServiceNames services;
+    
+    public PortScanEngine(int timeoutMillis, int maxInFlight, ServiceNames services) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMillis));
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.services = services;
+    }
+    
+    // Open ports per host, in host and port order; hosts with nothing open are left out
+    public Map<String, List<AdvancedPortScanner.PortScanResult>> scan(List<String> hosts, int[] ports, int alivePorts)
+            throws IOException {
+        Map<String, List<AdvancedPortScanner.PortScanResult>> results = new LinkedHashMap<>(Math.max(16, hosts.size()));
+        scan(hosts, ports, alivePorts, (ip, alive, open) -> {
+            if (!open.isEmpty()) {
+                results.put(ip, open);
+            }
+        });
+        return results;
+    }
+    
+    // Reports every host to listener, on the calling thread, as soon as it is done
+    public void scan(List<String> hosts, int[] ports, int alivePorts, HostListener listener) throws IOException {
+        Scan scan = new Scan(ports, Math.min(alivePorts, ports.length), listener);
+        // The JDK sets up its channel-closing machinery on first close and needs a free descriptor
+        // for it; do that now rather than when the window may have used them all
+        SocketChannel.open().close();
+        Selector selector = Selector.open();
+        try {
+            int nextHost = 0;
+            while (true) {
+                // Stopping the monitor interrupts the sweep; select() would just return at once
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Scan interrupted after " + nextHost + " of " + hosts.size() + " hosts");
+                }
+                nextHost = startProbes(selector, scan, hosts, nextHost);
+                if (scan.inFlight == 0) {
+                    // Only hosts whose liveness probes all started and failed remain
+                    if (nextHost >= hosts.size() && scan.ready.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                
+                selector.select(scan.wheel.getTickMillis());
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Probe probe = (Probe) key.attachment();
+                    if (probe.udp) {
+                        finishUdp(scan, probe);
+                    } else {
+                        finishTcp(selector, scan, probe);
+                    }
+                }
+                
+                scan.wheel.advance(System.nanoTime(), timeout -> expire(selector, scan, (Probe) timeout));
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            selector.close();
+        }
+    }
+    
+    // Fills the in-flight window from the current host onwards; returns the next unstarted host
+    private int startProbes(Selector selector, Scan scan, List<String> hosts, int nextHost) throws IOException {
+        while (scan.inFlight < scan.limit) {
+            Host host = scan.ready.peekFirst();
+            if (host == null) {
+                if (nextHost >= hosts.size()) {
+                    break;
+                }
+                host = startHost(scan, hosts.get(nextHost));
+                nextHost++;
+                if (host != null) {
+                    host.queued = true;
+                    scan.ready.addLast(host);
+                }
+                continue;
+            }
+            if (host.nextPort >= host.startable(scan)) {
+                scan.ready.pollFirst();
+                host.queued = false;
+                finishHostIfDone(scan, host);
+                continue;
+            }
+            if (!startTcp(selector, scan, host, host.nextPort)) {
+                break;
+            }
+            host.nextPort++;
+        }
+        return nextHost;
+    }
+    
+    private Host startHost(Scan scan, String ip) {
+        Host host = new Host(ip, scan.ports.length);
+        host.event.begin();
+        try {
+            host.address = InetAddress.getByName(ip);
+        } catch (UnknownHostException e) {
+            commitHost(host, false, 0);
+            scan.listener.hostScanned(ip, false, new ArrayList<>());
+            return null;
+        }
+        host.alive = scan.alivePorts == 0;
+        return host;
+    }
+    
+    // False when no socket could be opened; the port is retried once a probe finishes
+    private boolean startTcp(Selector selector, Scan scan, Host host, int portIndex) throws IOException {
+        Probe probe = new Probe(host, portIndex, scan.ports[portIndex]);
+        try {
+            probe.channel = SocketChannel.open();
+        } catch (IOException e) {
+            if (scan.inFlight > 0) {
+                return lowerLimit(scan, e);
+            }
+            // Closed probes only hand their descriptors back once the selector runs again
+            selector.selectNow();
+            probe.channel = SocketChannel.open();
+        }
+        probe.event.begin();
+        probe.deadline = System.nanoTime() + timeoutNanos;
+        host.outstanding++;
+        scan.inFlight++;
+        try {
+            SocketChannel channel = (SocketChannel) probe.channel;
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(host.address, probe.port))) {
+                resolve(scan, probe, "TCP", true);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, probe);
+                scan.wheel.schedule(probe, probe.deadline);
+            }
+        } catch (ConnectException e) {
+            // Refused at once (loopback, or a local firewall REJECT)
+            tcpFailed(selector, scan, probe, true);
+        } catch (IOException e) {
+            tcpFailed(selector, scan, probe, false);
+        }
+        return true;
+    }
+    
+    private void finishTcp(Selector selector, Scan scan, Probe probe) {
+        try {
+            if (((SocketChannel) probe.channel).finishConnect()) {
+                resolve(scan, probe, "TCP", true);
+            }
+        } catch (ConnectException e) {
+            // Refused: the host is up, the port is closed. The kernel also reports its own
+            // SYN timeout this way, but that takes 21 s (Windows) to minutes (Linux) and the
+            // probe is expired and closed well before
+            tcpFailed(selector, scan, probe, true);
+        } catch (IOException e) {
+            // Unreachable (NoRouteToHostException) or reset by a middlebox
+            tcpFailed(selector, scan, probe, false);
+        }
+    }
+    
+    private void tcpFailed(Selector selector, Scan scan, Probe probe, boolean refused) {
+        if (refused) {
+            markAlive(scan, probe.host);
+        }
+        if (!isUdpPort(probe.port)) {
+            resolve(scan, probe, null, false);
+            return;
+        }
+        scan.wheel.cancel(probe);
+        closeQuietly(probe.channel);
+        startUdp(selector, scan, probe);
+    }
+    
+    // Zero-filled 1 KB datagram (a connected channel silently skips empty writes, so an
+    // empty probe would never leave the host); any reply means open, an ICMP port
+    // unreachable means closed
+    private void startUdp(Selector selector, Scan scan, Probe probe) {
+        probe.udp = true;
+        try {
+            DatagramChannel channel = DatagramChannel.open();
+            probe.channel = channel;
+            channel.configureBlocking(false);
+            channel.connect(new InetSocketAddress(probe.host.address, probe.port));
+            channel.write(ByteBuffer.wrap(new byte[1024]));
+            channel.register(selector, SelectionKey.OP_READ, probe);
+            scan.wheel.schedule(probe, System.nanoTime() + timeoutNanos);
+        } catch (IOException e) {
+            resolve(scan, probe, null, false);
+        }
+    }
+    
+    private void finishUdp(Scan scan, Probe probe) {
+        try {
+            boolean replied = ((DatagramChannel) probe.channel).read(ByteBuffer.allocate(1024)) >= 0;
+            resolve(scan, probe, replied ? "UDP" : null, replied);
+        } catch (PortUnreachableException e) {
+            resolve(scan, probe, null, true);
+        } catch (IOException e) {
+            resolve(scan, probe, null, false);
+        }
+    }
+    
+    private void expire(Selector selector, Scan scan, Probe probe) {
+        if (probe.udp) {
+            // Open but silent UDP ports are indistinguishable from filtered ones
+            resolve(scan, probe, null, false);
+        } else {
+            tcpFailed(selector, scan, probe, false);
+        }
+    }
+    
+    // protocol is non-null when the port is open
+    private void resolve(Scan scan, Probe probe, String protocol, boolean answered) {
+        scan.wheel.cancel(probe);
+        closeQuietly(probe.channel);
+        scan.inFlight--;
+        Host host = probe.host;
+        host.outstanding--;
+        if (protocol != null) {
+            host.results[probe.portIndex] = new AdvancedPortScanner.PortScanResult(
+                host.ip, probe.port, protocol, "open", services.identify(probe.port));
+            host.openCount++;
+        }
+        if (answered) {
+            markAlive(scan, host);
+        }
+        
+        probe.event.end();
+        if (probe.event.shouldCommit()) {
+            probe.event.host = host.ip;
+            probe.event.port = probe.port;
+            probe.event.protocol = protocol != null ? protocol : "TCP";
+            probe.event.open = protocol != null;
+            probe.event.commit();
+        }
+        finishHostIfDone(scan, host);
+    }
+    
+    private void markAlive(Scan scan, Host host) {
+        if (host.alive) {
+            return;
+        }
+        host.alive = true;
+        // The remaining ports can start now
+        if (!host.queued && !host.finished) {
+            host.queued = true;
+            scan.ready.addLast(host);
+        }
+    }
+    
+    private void finishHostIfDone(Scan scan, Host host) {
+        if (host.finished || host.outstanding > 0 || host.nextPort < host.startable(scan)) {
+            return;
+        }
+        host.finished = true;
+        List<AdvancedPortScanner.PortScanResult> open = new ArrayList<>(host.openCount);
+        for (AdvancedPortScanner.PortScanResult result : host.results) {
+            if (result != null) {
+                open.add(result);
+            }
+        }
+        host.results = null;
+        commitHost(host, host.alive, host.alive ? host.nextPort : 0);
+        scan.listener.hostScanned(host.ip, host.alive, open);
+    }
+    
+    private void commitHost(Host host, boolean alive, int probed) {
+        host.event.end();
+        if (host.event.shouldCommit()) {
+            host.event.host = host.ip;
+            host.event.alive = alive;
+            host.event.portsProbed = probed;
+            host.event.openPorts = host.openCount;
+            host.event.commit();
+        }
+    }
+    
+    // Out of file descriptors: shrink the window, leaving some for the rest of the process
+    private boolean lowerLimit(Scan scan, IOException e) {
+        int limit = Math.max(1, scan.inFlight - Math.max(16, scan.inFlight / 8));
+        if (scan.limit > limit) {
+            System.err.println("Port scan limited to " + limit + " concurrent probes: " + e.getMessage());
+            scan.limit = limit;
+        }
+        return false;
+    }
+    
+    private static boolean isUdpPort(int port) {
+        for (int udp : UDP_PORTS) {
+            if (udp == port) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static void closeQuietly(SelectableChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+    
+    private final class Scan {
+        final int[] ports;
+        final int alivePorts;
+        final TimerWheel wheel = new TimerWheel(TICK_NANOS, WHEEL_BUCKETS, System.nanoTime());
+        // Hosts that may have ports left to start, current host first
+        final ArrayDeque<Host> ready = new ArrayDeque<>();
+        final HostListener listener;
+        int inFlight;
+        int limit = maxInFlight;
+        
+        Scan(int[] ports, int alivePorts, HostListener listener) {
+            this.ports = ports;
+            this.alivePorts = alivePorts;
+            this.listener = listener;
+        }
+    }
+    
+    private static final class Host {
+        final String ip;
+        final PortScanHostEvent event = new PortScanHostEvent();
+        InetAddress address;
+        AdvancedPortScanner.PortScanResult[] results;
+        int nextPort;
+        int outstanding;
+        int openCount;
+        boolean alive;
+        boolean queued;
+        boolean finished;
+        
+        Host(String ip, int ports) {
+            this.ip = ip;
+            this.results = new AdvancedPortScanner.PortScanResult[ports];
+        }
+        
+        // Ports that may be started: only the liveness ports until the host answers
+        int startable(Scan scan) {
+            return alive ? scan.ports.length : scan.alivePorts;
+        }
+    }
+    
+    private static final class Probe extends TimerWheel.Timeout {
+        final Host host;
+        final int portIndex;
+        final int port;
+        final PortProbeEvent event = new PortProbeEvent();
+        SelectableChannel channel;
+        boolean udp;
+        
+        Probe(Host host, int portIndex, int port) {
+            this.host = host;
+            this.portIndex = portIndex;
+            this.port = port;
+        }
+    }
+}
\ No newline at end of file
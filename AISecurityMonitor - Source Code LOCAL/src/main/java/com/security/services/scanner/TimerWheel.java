@@ -0,0 +1,91 @@
+package com.security.services.scanner;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for probe deadlines: scheduling and cancelling are O(1),
+ * and each tick only looks at the timeouts hashed into its bucket. Deadlines
+ * further out than one turn of the wheel stay in their bucket until the turn
+ * they are due. Timeouts fire up to about two ticks late. Not thread-safe.
+ */
+final class TimerWheel {
+    // Intrusive list node; extended by whatever carries a deadline
+    static class Timeout {
+        long deadline;
+        Timeout prev;
+        Timeout next;
+        int bucket = -1;
+        
+        boolean isScheduled() {
+            return bucket >= 0;
+        }
+    }
+    
+    private final Timeout[] buckets;
+    private final int mask;
+    private final long tickNanos;
+    private final long origin;
+    private long currentTick;
+    
+    // bucketCount is rounded up to a power of two
+    TimerWheel(long tickNanos, int bucketCount, long nowNanos) {
+        int count = Integer.highestOneBit(Math.max(2, bucketCount) * 2 - 1);
+        this.buckets = new Timeout[count];
+        this.mask = count - 1;
+        this.tickNanos = tickNanos;
+        this.origin = nowNanos;
+    }
+    
+    void schedule(Timeout timeout, long deadline) {
+        cancel(timeout);
+        long tick = Math.max(currentTick, (deadline - origin + tickNanos - 1) / tickNanos);
+        int bucket = (int) (tick & mask);
+        timeout.deadline = deadline;
+        timeout.bucket = bucket;
+        timeout.prev = null;
+        timeout.next = buckets[bucket];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        buckets[bucket] = timeout;
+    }
+    
+    void cancel(Timeout timeout) {
+        if (!timeout.isScheduled()) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+    
+    // Fires, after unscheduling, every timeout in the ticks that have fully passed
+    void advance(long nowNanos, Consumer<Timeout> expired) {
+        long target = (nowNanos - origin) / tickNanos;
+        while (currentTick < target) {
+            Timeout timeout = buckets[(int) (currentTick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                // Later turns of the wheel share the bucket
+                if (timeout.deadline <= nowNanos) {
+                    cancel(timeout);
+                    expired.accept(timeout);
+                }
+                timeout = next;
+            }
+            currentTick++;
+        }
+    }
+    
+    long getTickMillis() {
+        return Math.max(1, tickNanos / 1_000_000);
+    }
+}
\ No newline at end of file
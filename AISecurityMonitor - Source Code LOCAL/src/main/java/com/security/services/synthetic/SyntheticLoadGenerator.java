@@ -0,0 +1,228 @@
+package com.security.services.synthetic;
+
+import com.security.models.ConnectionData;
+import com.security.models.IpAddress;
+import com.security.services.ConfigService;
+import com.security.services.ThreatDetectionService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Produces a configurable synthetic connection table in place of a live scan.
+ *
+ * A fixed-size set of connections is kept between cycles and a configurable
+ * fraction of it is replaced every cycle, so the tracker and scoring paths
+ * see the same mix of new and long-lived sockets a real host has.
+ * Remote addresses are drawn from a pool of public IPv4 addresses, a fraction
+ * of which is flagged with ThreatDetectionService as known bad.
+ */
+public class SyntheticLoadGenerator {
+    private static final int EPHEMERAL_BASE = 49152;
+    private static final int EPHEMERAL_RANGE = 65536 - EPHEMERAL_BASE;
+    // Port entry "*" in synthetic.ports: any unprivileged port
+    private static final int ANY_PORT = -1;
+    private static final String DEFAULT_PORTS = "443:55,80:15,53:5,8080:5,22:3,3389:2,445:2,4444:1,6667:1,*:11";
+    private static final String DEFAULT_STATES = "ESTABLISHED:70,TIME_WAIT:12,CLOSE_WAIT:5,SYN_SENT:5,FIN_WAIT_2:3,LISTENING:5";
+    
+    private final ThreatDetectionService threatDetector;
+    private final Random random;
+    private final int connectionsPerCycle;
+    private final int remoteIPCount;
+    private final double badIPFraction;
+    private final int badIPSeverity;
+    private final double churn;
+    private final IpAddress localIP;
+    
+    private final int[] ports;
+    private final int[] portWeights;
+    private final String[] states;
+    private final int[] stateWeights;
+    
+    // Built on first use so an idle generator never touches reputation data
+    private IpAddress[] remoteIPs;
+    private Set<IpAddress> remoteIPSet;
+    
+    // Live connection table, one slot per connection
+    private int[] slotIP;
+    private int[] slotRemotePort;
+    private int[] slotLocalPort;
+    private int[] slotState;
+    private int nextLocalPort;
+    
+    public SyntheticLoadGenerator(ConfigService config, ThreatDetectionService threatDetector) {
+        this.threatDetector = threatDetector;
+        long seed = config.getLong("synthetic.seed", 0);
+        this.random = seed != 0 ? new Random(seed) : new Random();
+        this.connectionsPerCycle = Math.max(1, config.getInt("synthetic.connections.per.cycle", 200));
+        this.remoteIPCount = Math.max(1, config.getInt("synthetic.remote.ips", 2000));
+        this.badIPFraction = Math.min(1.0, Math.max(0.0, config.getDouble("synthetic.bad.ip.fraction", 0.02)));
+        this.badIPSeverity = config.getInt("synthetic.bad.ip.severity", 40);
+        this.churn = Math.min(1.0, Math.max(0.0, config.getDouble("synthetic.churn", 0.2)));
+        this.localIP = IpAddress.of(config.getString("synthetic.local.ip", "192.168.1.20"));
+        
+        List<String[]> portMix = parseWeights("synthetic.ports",
+            config.getString("synthetic.ports", DEFAULT_PORTS), DEFAULT_PORTS, true);
+        this.ports = new int[portMix.size()];
+        this.portWeights = new int[portMix.size()];
+        int total = 0;
+        for (int i = 0; i < portMix.size(); i++) {
+            String port = portMix.get(i)[0];
+            ports[i] = "*".equals(port) ? ANY_PORT : Integer.parseInt(port);
+            total += Integer.parseInt(portMix.get(i)[1]);
+            portWeights[i] = total;
+        }
+        
+        List<String[]> stateMix = parseWeights("synthetic.states",
+            config.getString("synthetic.states", DEFAULT_STATES), DEFAULT_STATES, false);
+        this.states = new String[stateMix.size()];
+        this.stateWeights = new int[stateMix.size()];
+        total = 0;
+        for (int i = 0; i < stateMix.size(); i++) {
+            states[i] = stateMix.get(i)[0];
+            total += Integer.parseInt(stateMix.get(i)[1]);
+            stateWeights[i] = total;
+        }
+    }
+    
+    public synchronized List<ConnectionData> generate() {
+        if (remoteIPs == null) {
+            initialize();
+        } else {
+            int replaced = (int) Math.round(connectionsPerCycle * churn);
+            for (int i = 0; i < replaced; i++) {
+                fillSlot(random.nextInt(connectionsPerCycle));
+            }
+        }
+        
+        // Fresh objects every cycle, like a real netstat snapshot
+        List<ConnectionData> connections = new ArrayList<>(connectionsPerCycle);
+        for (int i = 0; i < connectionsPerCycle; i++) {
+            int remotePort = slotRemotePort[i];
+            boolean udp = remotePort == 53 || remotePort == 123;
+            connections.add(new ConnectionData(
+                udp ? "UDP" : "TCP",
+                localIP,
+                remoteIPs[slotIP[i]],
+                slotLocalPort[i],
+                remotePort,
+                states[slotState[i]]
+            ));
+        }
+        return connections;
+    }
+    
+    // True for addresses this generator has handed out, so callers can keep
+    // synthetic traffic away from real side effects such as firewall rules
+    public synchronized boolean isSyntheticIP(IpAddress ip) {
+        return remoteIPSet != null && remoteIPSet.contains(ip);
+    }
+    
+    public int getConnectionsPerCycle() { return connectionsPerCycle; }
+    
+    private void initialize() {
+        remoteIPs = new IpAddress[remoteIPCount];
+        remoteIPSet = new HashSet<>(remoteIPCount * 2);
+        for (int i = 0; i < remoteIPCount; i++) {
+            IpAddress ip;
+            do {
+                ip = randomPublicIP();
+            } while (!remoteIPSet.add(ip));
+            remoteIPs[i] = ip;
+        }
+        
+        int badCount = (int) Math.round(remoteIPCount * badIPFraction);
+        for (int i = 0; i < badCount; i++) {
+            threatDetector.flagIP(remoteIPs[i], badIPSeverity);
+        }
+        System.out.println("Synthetic load: " + connectionsPerCycle + " connections/cycle over " +
+                           remoteIPCount + " remote IPs (" + badCount + " flagged)");
+        
+        slotIP = new int[connectionsPerCycle];
+        slotRemotePort = new int[connectionsPerCycle];
+        slotLocalPort = new int[connectionsPerCycle];
+        slotState = new int[connectionsPerCycle];
+        for (int i = 0; i < connectionsPerCycle; i++) {
+            fillSlot(i);
+        }
+    }
+    
+    private void fillSlot(int slot) {
+        slotIP[slot] = random.nextInt(remoteIPCount);
+        int port = ports[pick(portWeights)];
+        slotRemotePort[slot] = port == ANY_PORT ? 1024 + random.nextInt(65536 - 1024) : port;
+        // Sequential ephemeral ports make duplicate 5-tuples among live slots rare
+        slotLocalPort[slot] = EPHEMERAL_BASE + (nextLocalPort++ % EPHEMERAL_RANGE);
+        slotState[slot] = pick(stateWeights);
+    }
+    
+    private int pick(int[] cumulativeWeights) {
+        int total = cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, random.nextInt(total) + 1);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    // Skips internal, CGNAT, benchmark, multicast and reserved space
+    private IpAddress randomPublicIP() {
+        while (true) {
+            int a = 1 + random.nextInt(223);
+            int b = random.nextInt(256);
+            if ((a == 100 && b >= 64 && b < 128) || (a == 198 && (b == 18 || b == 19))) {
+                continue;
+            }
+            IpAddress ip = IpAddress.ofIPv4((a << 24) | (b << 16) | (random.nextInt(256) << 8) | (1 + random.nextInt(254)));
+            if (!ip.isInternal()) {
+                return ip;
+            }
+        }
+    }
+    
+    // "443:55,80:15,*:10" -> [["443","55"], ["80","15"], ["*","10"]]; malformed
+    // entries are skipped, and the defaults are used when none is left
+    private static List<String[]> parseWeights(String key, String spec, String defaults, boolean portNames) {
+        List<String[]> entries = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length == 2 && isValidName(parts[0].trim(), portNames) && parseWeight(parts[1].trim()) > 0) {
+                entries.add(new String[] { parts[0].trim(), parts[1].trim() });
+            } else {
+                System.err.println("Ignoring invalid " + key + " entry: " + entry.trim());
+            }
+        }
+        if (entries.isEmpty()) {
+            System.err.println("No usable entries in " + key + ", using the defaults");
+            return parseWeights(key, defaults, defaults, portNames);
+        }
+        return entries;
+    }
+    
+    private static boolean isValidName(String name, boolean port) {
+        if (!port) {
+            return !name.isEmpty();
+        }
+        if ("*".equals(name)) {
+            return true;
+        }
+        try {
+            int value = Integer.parseInt(name);
+            return value >= 1 && value <= 65535;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    // Weight of an entry, or 0 when it is not a positive integer
+    private static int parseWeight(String weight) {
+        try {
+            return Math.max(0, Integer.parseInt(weight));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
\ No newline at end of file
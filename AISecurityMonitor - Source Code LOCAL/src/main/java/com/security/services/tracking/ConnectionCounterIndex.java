@@ -0,0 +1,66 @@
+package com.security.services.tracking;
+
+import com.security.models.ConnectionData;
+import com.security.models.IpAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counts over the connection history window, keyed by remote IP and
+ * remote port. Connections are added when they enter the window and removed
+ * when the ring buffer evicts them, so every lookup is a single map read.
+ */
+public class ConnectionCounterIndex {
+    private final Map<IpAddress, Long> byRemoteIP = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> byRemotePort = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suspicious = new LongAdder();
+    private final LongAdder malicious = new LongAdder();
+    
+    // Must be called before the connection becomes visible in the window,
+    // so its removal can never overtake its addition
+    public void onEnter(ConnectionData connection) {
+        byRemoteIP.merge(connection.getRemoteAddress(), 1L, Long::sum);
+        byRemotePort.merge(connection.getRemotePort(), 1L, Long::sum);
+        total.increment();
+    }
+    
+    // Counts the connection's threat band; called once its score is final, before it can leave
+    public void onScored(ConnectionData connection) {
+        band(connection, 1);
+    }
+    
+    public void onLeave(ConnectionData connection) {
+        byRemoteIP.computeIfPresent(connection.getRemoteAddress(), (ip, count) -> count > 1 ? count - 1 : null);
+        byRemotePort.computeIfPresent(connection.getRemotePort(), (port, count) -> count > 1 ? count - 1 : null);
+        total.decrement();
+        band(connection, -1);
+    }
+    
+    // Same thresholds as the dashboard: > 80 malicious, > 60 suspicious
+    private void band(ConnectionData connection, int delta) {
+        double score = connection.getThreatScore();
+        if (score > 80) {
+            malicious.add(delta);
+        } else if (score > 60) {
+            suspicious.add(delta);
+        }
+    }
+    
+    public long countForRemoteIP(IpAddress ip) {
+        Long count = byRemoteIP.get(ip);
+        return count != null ? count : 0;
+    }
+    
+    public long countForRemotePort(int port) {
+        Long count = byRemotePort.get(port);
+        return count != null ? count : 0;
+    }
+    
+    public long getTotal() { return total.sum(); }
+    public long getSuspiciousCount() { return suspicious.sum(); }
+    public long getMaliciousCount() { return malicious.sum(); }
+    public long getThreatCount() { return suspicious.sum() + malicious.sum(); }
+    public int getDistinctRemoteIPs() { return byRemoteIP.size(); }
+}
\ No newline at end of file
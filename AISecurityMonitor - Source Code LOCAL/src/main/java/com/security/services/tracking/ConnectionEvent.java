@@ -0,0 +1,30 @@
+package com.security.services.tracking;
+
+import com.security.models.ConnectionData;
+
+public class ConnectionEvent {
+    // OWNER_CHANGED: same state, but the socket is now attributed to a different process
+    // RESCORE: unchanged, but its verdict expired or was invalidated
+    public enum Type { OPENED, CLOSED, STATE_CHANGED, OWNER_CHANGED, RESCORE }
+    
+    private final Type type;
+    private final ConnectionData connection;
+    private final String previousState;
+    
+    public ConnectionEvent(Type type, ConnectionData connection, String previousState) {
+        this.type = type;
+        this.connection = connection;
+        this.previousState = previousState;
+    }
+    
+    public Type getType() { return type; }
+    public ConnectionData getConnection() { return connection; }
+    
+    // Only set for STATE_CHANGED, OWNER_CHANGED and RESCORE events
+    public String getPreviousState() { return previousState; }
+    
+    @Override
+    public String toString() {
+        return type + " " + connection;
+    }
+}
\ No newline at end of file
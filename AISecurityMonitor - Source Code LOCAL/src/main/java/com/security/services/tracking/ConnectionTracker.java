@@ -0,0 +1,158 @@
+package com.security.services.tracking;
+
+import com.security.models.ConnectionData;
+import com.security.models.ConnectionKey;
+import com.security.models.IpAddress;
+import java.util.*;
+
+/**
+ * Diffs consecutive connection snapshots by 5-tuple. A socket that is
+ * still present with the same state and owner keeps its tracked instance
+ * (and its earlier verdict); only opened, closed, state-changed and
+ * owner-changed sockets are reported back to the caller. A kept verdict is
+ * reported for rescoring once it is older than the TTL, or as soon as the
+ * remote's reputation or the model it came from changes.
+ */
+public class ConnectionTracker {
+    private final Map<ConnectionKey, Tracked> tracked = new HashMap<>();
+    private final long verdictTtlMillis;
+    private long generation = 0;
+    private long reused = 0;
+    private long scored = 0;
+    private int lastReused = 0;
+    
+    public ConnectionTracker() {
+        this(0);
+    }
+    
+    // verdictTtlMillis <= 0 keeps verdicts until the socket changes or is invalidated
+    public ConnectionTracker(long verdictTtlMillis) {
+        this.verdictTtlMillis = verdictTtlMillis;
+    }
+    
+    public synchronized List<ConnectionEvent> update(List<ConnectionData> snapshot, long nowMillis) {
+        List<ConnectionEvent> events = new ArrayList<>();
+        generation++;
+        lastReused = 0;
+        
+        for (ConnectionData conn : snapshot) {
+            ConnectionKey key = ConnectionKey.of(conn);
+            Tracked previous = tracked.get(key);
+            
+            if (previous == null) {
+                conn.setFirstSeen(nowMillis);
+                conn.setLastSeen(nowMillis);
+                tracked.put(key, new Tracked(conn, generation, nowMillis));
+                events.add(new ConnectionEvent(ConnectionEvent.Type.OPENED, conn, null));
+            } else if (previous.generation == generation) {
+                // Duplicate row in the same snapshot
+                continue;
+            } else if (!Objects.equals(previous.connection.getState(), conn.getState())) {
+                conn.setFirstSeen(previous.connection.getFirstSeen());
+                conn.setLastSeen(nowMillis);
+                tracked.put(key, new Tracked(conn, generation, nowMillis));
+                events.add(new ConnectionEvent(ConnectionEvent.Type.STATE_CHANGED, conn,
+                                               previous.connection.getState()));
+            } else if (ownerChanged(previous.connection, conn)) {
+                // Attribution arrived late or the socket was handed to another process;
+                // the process feeds the rule score, so the connection is scored again
+                conn.setFirstSeen(previous.connection.getFirstSeen());
+                conn.setLastSeen(nowMillis);
+                tracked.put(key, new Tracked(conn, generation, nowMillis));
+                events.add(new ConnectionEvent(ConnectionEvent.Type.OWNER_CHANGED, conn,
+                                               previous.connection.getState()));
+            } else if (previous.stale || (verdictTtlMillis > 0 && nowMillis - previous.scoredAt >= verdictTtlMillis)) {
+                // Verdict expired or invalidated; the fresh row is scored in its place so the
+                // history window never holds one instance twice
+                conn.setFirstSeen(previous.connection.getFirstSeen());
+                conn.setLastSeen(nowMillis);
+                tracked.put(key, new Tracked(conn, generation, nowMillis));
+                events.add(new ConnectionEvent(ConnectionEvent.Type.RESCORE, conn,
+                                               previous.connection.getState()));
+            } else {
+                previous.connection.setLastSeen(nowMillis);
+                previous.generation = generation;
+                lastReused++;
+            }
+        }
+        reused += lastReused;
+        scored += events.size();
+        
+        // Anything not stamped with this generation has disappeared
+        Iterator<Tracked> it = tracked.values().iterator();
+        while (it.hasNext()) {
+            Tracked entry = it.next();
+            if (entry.generation != generation) {
+                it.remove();
+                events.add(new ConnectionEvent(ConnectionEvent.Type.CLOSED, entry.connection, null));
+            }
+        }
+        
+        return events;
+    }
+    
+    // Marks every tracked connection to or from the IP for rescoring, e.g. after its
+    // reputation changed; returns how many were marked
+    public synchronized int invalidateIP(IpAddress ip) {
+        int marked = 0;
+        for (Tracked entry : tracked.values()) {
+            if (ip.equals(entry.connection.getRemoteAddress()) || ip.equals(entry.connection.getLocalAddress())) {
+                entry.stale = true;
+                marked++;
+            }
+        }
+        return marked;
+    }
+    
+    // Marks every tracked connection for rescoring, e.g. after the model was retrained
+    public synchronized void invalidateAll() {
+        for (Tracked entry : tracked.values()) {
+            entry.stale = true;
+        }
+    }
+    
+    // A row without attribution (process gone, scan budget spent) keeps the known owner
+    private static boolean ownerChanged(ConnectionData previous, ConnectionData current) {
+        if (current.getPid() == 0 && current.getProcessName() == null) {
+            return false;
+        }
+        return previous.getPid() != current.getPid() ||
+               !Objects.equals(previous.getProcessName(), current.getProcessName());
+    }
+    
+    public synchronized List<ConnectionData> getActiveConnections() {
+        List<ConnectionData> active = new ArrayList<>(tracked.size());
+        for (Tracked entry : tracked.values()) {
+            active.add(entry.connection);
+        }
+        return active;
+    }
+    
+    public synchronized int size() {
+        return tracked.size();
+    }
+    
+    // Unchanged connections whose verdict was kept by the last update
+    public synchronized int getLastReused() {
+        return lastReused;
+    }
+    
+    // Share of connections seen by updates so far that kept their verdict instead of being scored
+    public synchronized double getReuseRatio() {
+        long total = reused + scored;
+        return total == 0 ? 0.0 : (double) reused / total;
+    }
+    
+    private static class Tracked {
+        final ConnectionData connection;
+        final long scoredAt;
+        long generation;
+        boolean stale;
+        
+        Tracked(ConnectionData connection, long generation, long scoredAt) {
+            this.connection = connection;
+            this.generation = generation;
+            this.scoredAt = scoredAt;
+        }
+    }
+}
\ No newline at end of file
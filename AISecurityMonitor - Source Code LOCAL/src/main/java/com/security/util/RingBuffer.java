@@ -0,0 +1,64 @@
+package com.security.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity, lock-free ring of the most recent items. Writers claim a
+ * sequence number and swap their item into its slot, so adding never copies
+ * or shifts the backing array. Readers get a weakly consistent view: an item
+ * being written concurrently may or may not be visible yet.
+ */
+public class RingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+    
+    // Returns the item that fell out of the window, or null while the ring is filling up
+    public T add(T item) {
+        long seq = sequence.getAndIncrement();
+        return slots.getAndSet((int) (seq % capacity), item);
+    }
+    
+    public int size() {
+        return (int) Math.min(sequence.get(), capacity);
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    public boolean isEmpty() {
+        return sequence.get() == 0;
+    }
+    
+    // Visits items oldest first without allocating a copy
+    public void forEach(Consumer<? super T> action) {
+        long end = sequence.get();
+        long start = Math.max(0, end - capacity);
+        for (long seq = start; seq < end; seq++) {
+            T item = slots.get((int) (seq % capacity));
+            if (item != null) {
+                action.accept(item);
+            }
+        }
+    }
+    
+    // Copy of the current window, oldest first; callers may sort or modify it freely
+    public List<T> snapshot() {
+        List<T> copy = new ArrayList<>(size());
+        forEach(copy::add);
+        return copy;
+    }
+}
\ No newline at end of file
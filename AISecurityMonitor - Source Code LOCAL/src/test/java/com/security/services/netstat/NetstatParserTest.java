@@ -0,0 +1,95 @@
+package com.security.services.netstat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.security.models.ConnectionData;
+import com.security.models.IpAddress;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Runs the parser over the recorded Windows capture in samples/
+class NetstatParserTest {
+    private static final Path SAMPLE = Path.of("samples", "netstat-ano-sample.txt");
+    
+    private List<ConnectionData> rows;
+    
+    @BeforeEach
+    void parseSample() throws IOException {
+        rows = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(SAMPLE)) {
+            int count = new NetstatParser().parse(in, rows::add);
+            assertEquals(rows.size(), count);
+        }
+    }
+    
+    @Test
+    void parsesEverySocketRowAndSkipsHeaders() {
+        assertEquals(15, rows.size());
+        assertEquals(10, rows.stream().filter(row -> row.getProtocol().equals("TCP")).count());
+        assertEquals(5, rows.stream().filter(row -> row.getProtocol().equals("UDP")).count());
+    }
+    
+    @Test
+    void parsesIPv4TcpRow() {
+        ConnectionData row = rows.get(4);
+        assertRow(row, "TCP", "192.168.1.20", 49720, "185.220.101.7", 4444, "SYN_SENT", 7788);
+    }
+    
+    @Test
+    void parsesBracketedIPv6Endpoints() {
+        assertRow(rows.get(6), "TCP", "::", 135, "::", 0, "LISTENING", 1024);
+        assertRow(rows.get(7), "TCP", "::1", 49680, "::1", 443, "ESTABLISHED", 5512);
+        assertRow(rows.get(9), "TCP", "2001:db8::20", 49740, "2606:4700::6810:84e5", 443, "ESTABLISHED", 6120);
+    }
+    
+    @Test
+    void keepsLinkLocalRowWithZoneIndex() {
+        ConnectionData row = rows.get(8);
+        assertEquals(139, row.getLocalPort());
+        assertTrue(row.getLocalAddress().isLinkLocal());
+        assertEquals(IpAddress.ANY_IPV6, row.getRemoteAddress());
+        assertEquals(4, row.getPid());
+    }
+    
+    @Test
+    void parsesUdpRowsWithoutState() {
+        assertRow(rows.get(10), "UDP", "0.0.0.0", 123, "0.0.0.0", 0, "", 4412);
+        assertRow(rows.get(12), "UDP", "192.168.1.20", 137, "0.0.0.0", 0, "", 4);
+        // The "*:*" remote takes the local endpoint's address family
+        assertRow(rows.get(13), "UDP", "::", 5353, "::", 0, "", 2208);
+        assertRow(rows.get(14), "UDP", "::1", 1900, "::", 0, "", 3964);
+    }
+    
+    @Test
+    void rejectsHeaderAndMalformedRows() {
+        NetstatParser parser = new NetstatParser();
+        assertNull(parse(parser, "  Proto  Local Address          Foreign Address        State           PID"));
+        assertNull(parse(parser, "  TCP    0.0.0.0:135            0.0.0.0:0              LISTENING"));
+        assertNull(parse(parser, "  TCP    0.0.0.0:70000          0.0.0.0:0              LISTENING       4"));
+    }
+    
+    private static ConnectionData parse(NetstatParser parser, String line) {
+        byte[] row = line.getBytes(StandardCharsets.ISO_8859_1);
+        return parser.parseRow(row, 0, row.length);
+    }
+    
+    private static void assertRow(ConnectionData row, String protocol, String localIP, int localPort,
+                                  String remoteIP, int remotePort, String state, int pid) {
+        assertEquals(protocol, row.getProtocol());
+        assertEquals(IpAddress.of(localIP), row.getLocalAddress());
+        assertEquals(localPort, row.getLocalPort());
+        assertEquals(IpAddress.of(remoteIP), row.getRemoteAddress());
+        assertEquals(remotePort, row.getRemotePort());
+        assertEquals(state, row.getState());
+        assertEquals(pid, row.getPid());
+    }
+}
\ No newline at end of file